@@ -0,0 +1,116 @@
+package com.example.pos.bench;
+
+import com.example.pos.PosApplication;
+import com.example.pos.dto.ItemRequest;
+import com.example.pos.dto.OrderItemRequest;
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.service.CartSessionCache;
+import com.example.pos.service.ItemService;
+import com.example.pos.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Taps per second one terminal gets on a DRAFT order of {@code lines} lines,
+ * editing lines straight through {@link OrderService} versus through the
+ * write-behind cart, against a temporary SQLite file. Each tap sets one line
+ * to a new quantity, cycling through the lines.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartTapBenchmark {
+
+    @Param({"10", "40"})
+    private int lines;
+
+    private Path database;
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private CartSessionCache cartSessions;
+    private List<UUID> menu;
+    private UUID directOrderId;
+    private UUID cartOrderId;
+    private long taps;
+
+    @Setup
+    public void setUp() throws IOException {
+        database = Files.createTempFile("pos-jmh-cart", ".db");
+        context = new SpringApplicationBuilder(PosApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:sqlite:" + database,
+                "app.cart.journal-path=" + database + ".cart",
+                "app.fiscalization.enabled=false",
+                "logging.level.root=WARN")
+            .run();
+        orderService = context.getBean(OrderService.class);
+        cartSessions = context.getBean(CartSessionCache.class);
+
+        ItemService itemService = context.getBean(ItemService.class);
+        menu = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            menu.add(itemService.create(new ItemRequest(
+                "Item " + i, new BigDecimal("4.50"), "Category " + i % 5, "TAP-" + i, "98211000")).id());
+        }
+        directOrderId = orderService.createOrder().id();
+        cartOrderId = orderService.createOrder().id();
+        for (UUID itemId : menu) {
+            orderService.addOrUpdateItem(directOrderId, new OrderItemRequest(itemId, 1));
+            cartSessions.setQuantity(cartOrderId, itemId, 1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        cartSessions.evict(cartOrderId);
+        context.close();
+        Files.deleteIfExists(database);
+        Files.deleteIfExists(Path.of(database + ".cart"));
+    }
+
+    @Benchmark
+    public OrderResponse orderService() {
+        long tap = taps++;
+        return orderService.addOrUpdateItem(directOrderId, new OrderItemRequest(line(tap), quantity(tap)));
+    }
+
+    @Benchmark
+    public OrderResponse cartSession() {
+        long tap = taps++;
+        return cartSessions.setQuantity(cartOrderId, line(tap), quantity(tap));
+    }
+
+    private UUID line(long tap) {
+        return menu.get((int) (tap % lines));
+    }
+
+    private int quantity(long tap) {
+        return 2 + (int) (tap / lines % 5);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.pos.bench;
+
+import com.example.pos.entity.Item;
+import com.example.pos.entity.Order;
+import com.example.pos.entity.OrderItem;
+import com.example.pos.entity.OrderStatus;
+import com.example.pos.entity.PaymentMode;
+import com.example.pos.pra.PraProperties;
+import com.example.pos.repository.ItemRepository;
+import com.example.pos.repository.OrderRepository;
+import com.example.pos.service.MenuCatalogCache;
+import com.example.pos.service.OrderService;
+import com.example.pos.service.OrderTaxes;
+import com.example.pos.tax.TaxEngine;
+import com.example.pos.tax.TaxProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Detached carts for the micro benchmarks; nothing here touches a database.
+ */
+public final class Carts {
+    private Carts() {
+    }
+
+    public static Order draft(int lines) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setInvoiceNumber("INV-20240505-BENCH001");
+        order.setStatus(OrderStatus.DRAFT);
+        order.setPaymentMode(PaymentMode.CASH);
+        order.setDiscount(new BigDecimal("5.00"));
+        order.setCustomerName("Walk-in");
+        setCreatedAt(order, Instant.parse("2024-05-05T10:15:30Z"));
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            Item item = new Item();
+            item.setId(UUID.randomUUID());
+            item.setName("Item " + i);
+            item.setPrice(new BigDecimal(String.format("%d.%02d", 1 + i % 40, i % 100)));
+            item.setCategory("Category " + i % 8);
+            item.setItemCode("ITEM-" + i);
+            item.setPctCode("98211000");
+            item.setActive(true);
+
+            OrderItem line = new OrderItem();
+            line.setId(UUID.randomUUID());
+            line.setOrder(order);
+            line.setItem(item);
+            line.setQuantity(1 + i % 5);
+            line.setUnitPrice(item.getPrice());
+            line.setLineTotal(item.getPrice().multiply(BigDecimal.valueOf(line.getQuantity())));
+            order.getItems().add(line);
+            subtotal = subtotal.add(line.getLineTotal());
+        }
+        order.setSubtotal(subtotal);
+        return order;
+    }
+
+    /**
+     * An {@link OrderService} whose repositories hold just {@code order} and its
+     * items, so benchmarks go through the public edit methods without a
+     * database. Only the lookups those edits make are answered.
+     */
+    public static OrderService orderService(Order order, boolean verifyTotals) {
+        List<Item> menu = order.getItems().stream()
+            .map(OrderItem::getItem)
+            .sorted(Comparator.comparing(Item::getName))
+            .toList();
+        ItemRepository itemRepository = repository(ItemRepository.class, (name, args) -> switch (name) {
+            case "findAllByOrderByNameAsc" -> menu;
+            default -> null;
+        });
+        OrderRepository orderRepository = repository(OrderRepository.class, (name, args) -> switch (name) {
+            case "findWithItemsById" -> Optional.of(order);
+            case "save" -> args[0];
+            default -> null;
+        });
+        MenuCatalogCache catalogCache = new MenuCatalogCache(itemRepository, new ObjectMapper().findAndRegisterModules());
+        PraProperties praProperties = new PraProperties();
+        return new OrderService(orderRepository, itemRepository, catalogCache, null, null, null,
+            new OrderTaxes(new TaxEngine(new TaxProperties(), praProperties), catalogCache),
+            event -> { }, null, new SimpleMeterRegistry(), verifyTotals);
+    }
+
+    // Entities get createdAt from Hibernate; there is no setter to call
+    private static void setCreatedAt(Order order, Instant createdAt) {
+        try {
+            Field field = Order.class.getDeclaredField("createdAt");
+            field.setAccessible(true);
+            field.set(order, createdAt);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static <T> T repository(Class<T> type, BiFunction<String, Object[], Object> answers) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Object result = answers.apply(method.getName(), args);
+            if (result == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return result;
+        });
+        return type.cast(stub);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.pos.bench;
+
+import com.example.pos.PosApplication;
+import com.example.pos.dto.ItemRequest;
+import com.example.pos.dto.ItemResponse;
+import com.example.pos.dto.OrderItemChange;
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.service.ItemService;
+import com.example.pos.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Create, fill and check out an order through the real services, repositories
+ * and migrations against a temporary SQLite file. PRA dispatch is switched off,
+ * so this measures everything a cashier waits for before the receipt prints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckoutBenchmark {
+    private static final int MENU_SIZE = 50;
+
+    @Param({"1", "10", "50"})
+    private int lines;
+
+    private Path database;
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private List<OrderItemChange> cart;
+
+    @Setup
+    public void setUp() throws IOException {
+        database = Files.createTempFile("pos-jmh-checkout", ".db");
+        context = new SpringApplicationBuilder(PosApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:sqlite:" + database,
+                "app.cart.journal-path=" + database + ".cart",
+                "app.fiscalization.enabled=false",
+                "logging.level.root=WARN")
+            .run();
+        orderService = context.getBean(OrderService.class);
+
+        ItemService itemService = context.getBean(ItemService.class);
+        List<ItemResponse> menu = new ArrayList<>();
+        for (int i = 0; i < MENU_SIZE; i++) {
+            menu.add(itemService.create(new ItemRequest(
+                "Item " + i, new BigDecimal("4.50"), "Category " + i % 5, "BENCH-" + i, "98211000")));
+        }
+        cart = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            cart.add(new OrderItemChange(menu.get(i % MENU_SIZE).id(), 1 + i % 3));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(database);
+        Files.deleteIfExists(Path.of(database + ".cart"));
+    }
+
+    @Benchmark
+    public OrderResponse checkout() {
+        OrderResponse order = orderService.createOrder();
+        orderService.applyItemChanges(order.id(), cart);
+        return orderService.checkout(order.id());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.pos.bench;
+
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.dto.OrderUpdateRequest;
+import com.example.pos.entity.Order;
+import com.example.pos.entity.OrderItem;
+import com.example.pos.entity.PaymentMode;
+import com.example.pos.pra.PraInvoiceMapper;
+import com.example.pos.pra.PraProperties;
+import com.example.pos.pra.dto.PraInvoiceModel;
+import com.example.pos.service.OrderService;
+import com.example.pos.tax.TaxEngine;
+import com.example.pos.tax.TaxProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order totals and PRA line math on {@code Money} against the BigDecimal code
+ * it replaced. The {@code bigDecimal*} methods are copies of the old
+ * arithmetic. The {@code money*} side goes through the public API and does
+ * more: {@code moneyTotals} is an order update with verify-totals on, which
+ * sums every line and maps the response, and {@code moneyInvoice} builds the
+ * full invoice model, so both are upper bounds. Run with {@code -prof gc} to
+ * compare allocation rates too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+    private static final OrderUpdateRequest NO_CHANGES = new OrderUpdateRequest(null, null, null, null, null, null, null, null);
+
+    @Param({"1", "10", "50", "200"})
+    private int lines;
+
+    private OrderService orderService;
+    private PraInvoiceMapper mapper;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        PraProperties props = new PraProperties();
+        TaxEngine taxEngine = new TaxEngine(new TaxProperties(), props);
+        mapper = new PraInvoiceMapper(props, taxEngine);
+        order = Carts.draft(lines);
+        orderService = Carts.orderService(order, true);
+    }
+
+    @Benchmark
+    public OrderResponse moneyTotals() {
+        return orderService.updateOrder(order.getId(), NO_CHANGES);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotals() {
+        BigDecimal subtotal = order.getItems().stream()
+            .map(OrderItem::getLineTotal)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal discounted = subtotal.subtract(order.getDiscount());
+        if (discounted.signum() < 0) {
+            discounted = BigDecimal.ZERO;
+        }
+        BigDecimal gstRate = order.getPaymentMode() == PaymentMode.CARD ? new BigDecimal("0.05") : new BigDecimal("0.16");
+        BigDecimal tax = discounted.multiply(gstRate).setScale(2, RoundingMode.HALF_UP);
+        return discounted.add(tax).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public PraInvoiceModel moneyInvoice() {
+        return mapper.fromOrder(order);
+    }
+
+    @Benchmark
+    public void bigDecimalInvoiceLines(Blackhole blackhole) {
+        BigDecimal gstRate = BigDecimal.valueOf(0.16);
+        BigDecimal discount = order.getDiscount();
+        BigDecimal rawTotal = order.getItems().stream()
+            .map(OrderItem::getLineTotal)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalSale = BigDecimal.ZERO;
+        BigDecimal totalTax = BigDecimal.ZERO;
+        for (OrderItem line : order.getItems()) {
+            BigDecimal itemDiscount = line.getLineTotal().divide(rawTotal, 10, RoundingMode.HALF_UP)
+                .multiply(discount)
+                .setScale(2, RoundingMode.HALF_UP);
+            BigDecimal saleValue = line.getLineTotal().subtract(itemDiscount).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal taxRate = gstRate.multiply(HUNDRED).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal taxCharged = saleValue.multiply(gstRate).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal totalAmount = saleValue.add(taxCharged).setScale(2, RoundingMode.HALF_UP);
+            blackhole.consume(taxRate);
+            blackhole.consume(totalAmount);
+            totalSale = totalSale.add(saleValue);
+            totalTax = totalTax.add(taxCharged);
+        }
+        blackhole.consume(totalSale.add(totalTax).max(BigDecimal.ZERO));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.pos.bench;
+
+import com.example.pos.dto.OrderItemRequest;
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.dto.OrderUpdateRequest;
+import com.example.pos.entity.Order;
+import com.example.pos.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line and order edits through OrderService's public methods, with the
+ * repositories replaced by {@link Carts#orderService} so only the service's
+ * own work is measured: the line change, totals from the running subtotal and
+ * the response mapping. Each edit is undone by the next call, so the cart
+ * keeps its size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderServiceBenchmark {
+    private static final BigDecimal[] DISCOUNTS = {new BigDecimal("5.00"), new BigDecimal("7.50")};
+
+    @Param({"1", "10", "50", "200"})
+    private int lines;
+
+    private OrderService orderService;
+    private UUID orderId;
+    private UUID itemId;
+    private int quantity;
+    private int delta = -1;
+    private int discount;
+
+    @Setup
+    public void setUp() {
+        Order order = Carts.draft(lines);
+        orderService = Carts.orderService(order, false);
+        orderId = order.getId();
+        itemId = order.getItems().get(lines / 2).getItem().getId();
+        quantity = order.getItems().get(lines / 2).getQuantity();
+    }
+
+    @Benchmark
+    public OrderResponse setQuantity() {
+        quantity = quantity == 2 ? 3 : 2;
+        return orderService.addOrUpdateItem(orderId, new OrderItemRequest(itemId, quantity));
+    }
+
+    @Benchmark
+    public OrderResponse adjustQuantity() {
+        delta = -delta;
+        return orderService.adjustItemQuantities(orderId, Map.of(itemId, delta));
+    }
+
+    @Benchmark
+    public OrderResponse changeDiscount() {
+        discount ^= 1;
+        return orderService.updateOrder(orderId,
+            new OrderUpdateRequest(null, null, null, null, null, null, DISCOUNTS[discount], null));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.pos.bench;
+
+import com.example.pos.entity.Order;
+import com.example.pos.pra.PraInvoiceMapper;
+import com.example.pos.pra.PraProperties;
+import com.example.pos.pra.dto.PraInvoiceModel;
+import com.example.pos.tax.TaxEngine;
+import com.example.pos.tax.TaxProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PraInvoiceMapperBenchmark {
+
+    @Param({"1", "10", "50", "200"})
+    private int lines;
+
+    private PraInvoiceMapper mapper;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        PraProperties props = new PraProperties();
+        mapper = new PraInvoiceMapper(props, new TaxEngine(new TaxProperties(), props));
+        order = Carts.draft(lines);
+    }
+
+    @Benchmark
+    public PraInvoiceModel fromOrder() {
+        return mapper.fromOrder(order);
+    }
+}
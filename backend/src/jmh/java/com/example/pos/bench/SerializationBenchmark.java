@@ -0,0 +1,98 @@
+package com.example.pos.bench;
+
+import com.example.pos.dto.OrderItemResponse;
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.entity.Order;
+import com.example.pos.pra.PraInvoiceMapper;
+import com.example.pos.pra.PraProperties;
+import com.example.pos.pra.dto.PraInvoiceModel;
+import com.example.pos.tax.TaxEngine;
+import com.example.pos.tax.TaxProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the two payloads every checkout produces: the API response
+ * and the PRA request body. The mapper is configured the way Spring Boot does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"1", "10", "50", "200"})
+    private int lines;
+
+    private ObjectMapper objectMapper;
+    private OrderResponse orderResponse;
+    private PraInvoiceModel invoice;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Order order = Carts.draft(lines);
+        PraProperties props = new PraProperties();
+        invoice = new PraInvoiceMapper(props, new TaxEngine(new TaxProperties(), props)).fromOrder(order);
+        List<OrderItemResponse> items = order.getItems().stream()
+            .map(line -> new OrderItemResponse(
+                line.getId(),
+                line.getItem().getId(),
+                line.getItem().getName(),
+                line.getQuantity(),
+                line.getUnitPrice(),
+                line.getLineTotal()))
+            .toList();
+        orderResponse = new OrderResponse(
+            order.getId(),
+            order.getInvoiceNumber(),
+            null,
+            null,
+            null,
+            null,
+            order.getSubtotal(),
+            order.getTax(),
+            order.getTotal(),
+            order.getStatus(),
+            order.getPaymentMode().name(),
+            order.getGstRate(),
+            order.getGstAmount(),
+            order.getCustomerName(),
+            null,
+            null,
+            null,
+            null,
+            null,
+            order.getDiscount(),
+            order.getCreatedAt(),
+            items
+        );
+    }
+
+    @Benchmark
+    public byte[] orderResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderResponse);
+    }
+
+    @Benchmark
+    public byte[] praInvoiceModel() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(invoice);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.pos.pra;
+
+import com.example.pos.bench.Carts;
+import com.example.pos.pra.dto.PraInvoiceModel;
+import com.example.pos.tax.TaxEngine;
+import com.example.pos.tax.TaxProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caller-side cost of preparing a 100-line PRA request body. {@code doubleSerialization}
+ * is the old path (a String for the INFO log, then the converter serializing
+ * again for the wire); {@code singleSerialization} writes bytes once and hands
+ * them to the sampled audit log.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PraPayloadBenchmark {
+    private static final int LINES = 100;
+    private static final String URL = "https://ims.pral.com.pk/ims/production/api/Live/PostData";
+
+    private ObjectMapper objectMapper;
+    private PraInvoiceModel invoice;
+    private PraAuditLog auditLog;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        PraProperties props = new PraProperties();
+        invoice = new PraInvoiceMapper(props, new TaxEngine(new TaxProperties(), props)).fromOrder(Carts.draft(LINES));
+        auditLog = new PraAuditLog(props, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        auditLog.shutdown();
+    }
+
+    @Benchmark
+    public void doubleSerialization(Blackhole blackhole) throws JsonProcessingException {
+        blackhole.consume(objectMapper.writeValueAsString(invoice));
+        blackhole.consume(objectMapper.writeValueAsBytes(invoice));
+    }
+
+    @Benchmark
+    public byte[] singleSerialization() throws JsonProcessingException {
+        byte[] body = objectMapper.writeValueAsBytes(invoice);
+        auditLog.request(URL, invoice.usin(), body);
+        return body;
+    }
+}
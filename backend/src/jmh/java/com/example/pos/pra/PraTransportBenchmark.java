@@ -0,0 +1,104 @@
+package com.example.pos.pra;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call latency against a local stub IMS endpoint, with the pooled
+ * keep-alive transport versus the same client closing every connection. The
+ * stub is plain HTTP, so the gap seen here excludes the TLS handshake that
+ * reuse also saves against ims.pral.com.pk.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PraTransportBenchmark {
+    private static final byte[] RESPONSE =
+        "{\"InvoiceNumber\":\"190366BENCH0001\",\"Code\":\"100\",\"Response\":\"Fiscal Invoice Number generated successfully.\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"pooled", "no-reuse"})
+    private String transport;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ClientHttpRequestFactory requestFactory;
+    private RestTemplate restTemplate;
+    private HttpEntity<String> request;
+    private String url;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/Live/PostData", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(RESPONSE);
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/Live/PostData";
+
+        PraProperties props = new PraProperties();
+        AdaptiveTimeout readTimeout = new AdaptiveTimeout(props.getMinReadTimeout(), props.getMaxReadTimeout());
+        requestFactory = "pooled".equals(transport)
+            ? PraHttpClients.pooled(props, readTimeout, new SimpleMeterRegistry())
+            : new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                .setConnectionReuseStrategy((req, resp, context) -> false)
+                .build());
+        restTemplate = new RestTemplate(requestFactory);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        request = new HttpEntity<>("{\"InvoiceNumber\":\"\",\"POSID\":190366,\"TotalBillAmount\":116.00}", headers);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        ((HttpComponentsClientHttpRequestFactory) requestFactory).destroy();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public String postInvoice() {
+        return restTemplate.postForObject(url, request, String.class);
+    }
+}
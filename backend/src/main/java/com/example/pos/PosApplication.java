@@ -1,12 +1,16 @@
 package com.example.pos;
 
+import com.example.pos.config.SqliteProperties;
 import com.example.pos.pra.PraProperties;
+import com.example.pos.tax.TaxProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties(PraProperties.class)
+@EnableConfigurationProperties({PraProperties.class, SqliteProperties.class, TaxProperties.class})
+@EnableScheduling
 public class PosApplication {
     public static void main(String[] args) {
         SpringApplication.run(PosApplication.class, args);
@@ -0,0 +1,42 @@
+package com.example.pos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+@Configuration
+public class DataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    @FlywayDataSource
+    public HikariDataSource writeDataSource(DataSourceProperties dataSourceProperties, SqliteProperties sqliteProperties) {
+        return SqliteDataSources.writer(dataSourceProperties.getUrl(), sqliteProperties);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource readDataSource(DataSourceProperties dataSourceProperties, SqliteProperties sqliteProperties) {
+        return SqliteDataSources.reader(dataSourceProperties.getUrl(), sqliteProperties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                                 @Qualifier("readDataSource") HikariDataSource readDataSource) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+            ReadWriteRoutingDataSource.WRITER, writeDataSource,
+            ReadWriteRoutingDataSource.READER, readDataSource
+        ));
+        routing.setDefaultTargetDataSource(writeDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.pos.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to the reader pool and
+ * everything else to the writer. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so
+ * the lookup happens after the transaction's read-only flag is known.
+ */
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    static final String WRITER = "writer";
+    static final String READER = "reader";
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READER : WRITER;
+    }
+}
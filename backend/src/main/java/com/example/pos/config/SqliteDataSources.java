@@ -0,0 +1,55 @@
+package com.example.pos.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import java.util.Locale;
+
+/**
+ * Builds the SQLite connection pools: a single writer, because SQLite allows
+ * one writer at a time anyway, and a pool of read-only connections that can
+ * read concurrently with it under WAL.
+ */
+public final class SqliteDataSources {
+    private SqliteDataSources() {
+    }
+
+    public static HikariDataSource writer(String url, SqliteProperties props) {
+        SQLiteConfig config = baseConfig(props);
+        config.setJournalMode(SQLiteConfig.JournalMode.valueOf(props.getJournalMode().toUpperCase(Locale.ROOT)));
+        config.setSynchronous(SQLiteConfig.SynchronousMode.valueOf(props.getSynchronous().toUpperCase(Locale.ROOT)));
+        HikariConfig hikari = hikari("pos-sqlite-writer", url, config);
+        hikari.setMaximumPoolSize(1);
+        return new HikariDataSource(hikari);
+    }
+
+    public static HikariDataSource reader(String url, SqliteProperties props) {
+        SQLiteConfig config = baseConfig(props);
+        config.setReadOnly(true);
+        HikariConfig hikari = hikari("pos-sqlite-reader", url, config);
+        hikari.setMaximumPoolSize(props.getReadPoolSize());
+        // The file may not exist until the writer has run the migrations
+        hikari.setInitializationFailTimeout(-1);
+        return new HikariDataSource(hikari);
+    }
+
+    private static SQLiteConfig baseConfig(SqliteProperties props) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(props.getBusyTimeoutMs());
+        config.setCacheSize(-props.getCacheSizeKib());
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(props.getMmapSizeBytes()));
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        return config;
+    }
+
+    private static HikariConfig hikari(String poolName, String url, SQLiteConfig config) {
+        SQLiteDataSource sqlite = new SQLiteDataSource(config);
+        sqlite.setUrl(url);
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName(poolName);
+        hikari.setDataSource(sqlite);
+        return hikari;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.pos.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.sqlite")
+public class SqliteProperties {
+
+    // Applied by the writer connection; WAL is persistent in the database file
+    private String journalMode = "WAL";
+    private String synchronous = "NORMAL";
+
+    // Applied to every connection
+    private int busyTimeoutMs = 5000;
+    private int cacheSizeKib = 16384;
+    private long mmapSizeBytes = 268435456L;
+
+    // Read-only connections serving @Transactional(readOnly = true)
+    private int readPoolSize = 4;
+
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    public void setJournalMode(String journalMode) {
+        this.journalMode = journalMode;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public void setSynchronous(String synchronous) {
+        this.synchronous = synchronous;
+    }
+
+    public int getBusyTimeoutMs() {
+        return busyTimeoutMs;
+    }
+
+    public void setBusyTimeoutMs(int busyTimeoutMs) {
+        this.busyTimeoutMs = busyTimeoutMs;
+    }
+
+    public int getCacheSizeKib() {
+        return cacheSizeKib;
+    }
+
+    public void setCacheSizeKib(int cacheSizeKib) {
+        this.cacheSizeKib = cacheSizeKib;
+    }
+
+    public long getMmapSizeBytes() {
+        return mmapSizeBytes;
+    }
+
+    public void setMmapSizeBytes(long mmapSizeBytes) {
+        this.mmapSizeBytes = mmapSizeBytes;
+    }
+
+    public int getReadPoolSize() {
+        return readPoolSize;
+    }
+
+    public void setReadPoolSize(int readPoolSize) {
+        this.readPoolSize = readPoolSize;
+    }
+}
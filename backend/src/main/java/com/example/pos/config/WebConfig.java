@@ -30,7 +30,7 @@ public class WebConfig {
         config.setAllowedHeaders(List.of("*"));
         
         // Expose headers that frontend might need
-        config.setExposedHeaders(Arrays.asList("Content-Type", "Authorization"));
+        config.setExposedHeaders(Arrays.asList("Content-Type", "Authorization", "ETag"));
         
         // Don't allow credentials (cookies) - set to true if needed
         config.setAllowCredentials(false);
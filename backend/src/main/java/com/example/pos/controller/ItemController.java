@@ -1,13 +1,20 @@
 package com.example.pos.controller;
 
+import com.example.pos.dto.CatalogStats;
 import com.example.pos.dto.ItemRequest;
 import com.example.pos.dto.ItemResponse;
+import com.example.pos.service.CatalogRepresentation;
 import com.example.pos.service.ItemService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @RestController
@@ -20,8 +27,66 @@ public class ItemController {
     }
 
     @GetMapping
-    public List<ItemResponse> listItems(@RequestParam(value = "includeInactive", defaultValue = "false") boolean includeInactive) {
-        return includeInactive ? itemService.listAll() : itemService.listActive();
+    public ResponseEntity<byte[]> listItems(@RequestParam(value = "includeInactive", defaultValue = "false") boolean includeInactive,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                            WebRequest request) {
+        CatalogRepresentation catalog = itemService.catalogRepresentation(includeInactive);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? catalog.gzipEtag() : catalog.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(catalog.gzip());
+        }
+        return response.body(catalog.json());
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} allows gzip: listed (or {@code x-gzip}),
+     * or covered by {@code *}, with a q-value above 0.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            } else if (coding.equals("*")) {
+                wildcard = q;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    @GetMapping("/catalog/stats")
+    public CatalogStats catalogStats() {
+        return itemService.catalogStats();
     }
 
     @PostMapping
@@ -1,23 +1,47 @@
 package com.example.pos.controller;
 
+import com.example.pos.dto.OrderItemDelta;
 import com.example.pos.dto.OrderItemRequest;
+import com.example.pos.dto.OrderItemsBatchRequest;
+import com.example.pos.dto.OrderPageResponse;
 import com.example.pos.dto.OrderResponse;
 import com.example.pos.dto.OrderUpdateRequest;
 import com.example.pos.entity.OrderStatus;
+import com.example.pos.service.CartSessionCache;
+import com.example.pos.service.CheckoutGuard;
+import com.example.pos.service.OrderEventStream;
 import com.example.pos.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_PAGE_SIZE = 200;
+
     private final OrderService orderService;
+    private final CheckoutGuard checkoutGuard;
+    private final CartSessionCache cartSessions;
+    private final OrderEventStream eventStream;
+    private final ObjectMapper objectMapper;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, CheckoutGuard checkoutGuard, CartSessionCache cartSessions,
+                           OrderEventStream eventStream, ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.checkoutGuard = checkoutGuard;
+        this.cartSessions = cartSessions;
+        this.eventStream = eventStream;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -31,33 +55,85 @@ public class OrderController {
         return orderService.listOrders(status);
     }
 
+    @GetMapping("/page")
+    public OrderPageResponse listOrdersPage(@RequestParam(value = "status", required = false) OrderStatus status,
+                                            @RequestParam(value = "from", required = false) LocalDate from,
+                                            @RequestParam(value = "to", required = false) LocalDate to,
+                                            @RequestParam(value = "cursor", required = false) String cursor,
+                                            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return orderService.listOrdersPage(status, from, to, cursor, limit);
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(value = "status", required = false) OrderStatus status,
+                                                              @RequestParam(value = "from", required = false) LocalDate from,
+                                                              @RequestParam(value = "to", required = false) LocalDate to) {
+        StreamingResponseBody body = out -> {
+            String cursor = null;
+            do {
+                OrderPageResponse page = orderService.listOrdersPage(status, from, to, cursor, EXPORT_PAGE_SIZE);
+                for (OrderResponse order : page.items()) {
+                    out.write(objectMapper.writeValueAsBytes(order));
+                    out.write('\n');
+                }
+                out.flush();
+                cursor = page.nextCursor();
+            } while (cursor != null);
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(NDJSON))
+            .body(body);
+    }
+
+    /**
+     * Server-Sent Events for every committed order change. Browsers resume with
+     * the {@code Last-Event-ID} header on their own; {@code lastEventId} lets a
+     * fresh page pick up where an earlier one stopped.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                             @RequestParam(value = "lastEventId", required = false) Long lastEventId) {
+        return eventStream.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
     @GetMapping("/{id}")
     public OrderResponse getOrder(@PathVariable UUID id) {
-        return orderService.getOrder(id);
+        return cartSessions.find(id).orElseGet(() -> orderService.getOrder(id));
     }
 
     @PatchMapping("/{id}")
-    public OrderResponse updateOrder(@PathVariable UUID id, @RequestBody OrderUpdateRequest request) {
-        return orderService.updateOrder(id, request);
+    public OrderResponse updateOrder(@PathVariable UUID id, @Valid @RequestBody OrderUpdateRequest request) {
+        return cartSessions.whileClosing(id, () -> orderService.updateOrder(id, request));
     }
 
     @PostMapping("/{id}/items")
     public OrderResponse addOrUpdateItem(@PathVariable UUID id, @Valid @RequestBody OrderItemRequest request) {
-        return orderService.addOrUpdateItem(id, request);
+        return cartSessions.setQuantity(id, request.itemId(), request.quantity());
+    }
+
+    @PostMapping("/{id}/items:batch")
+    public OrderResponse applyItemChanges(@PathVariable UUID id, @Valid @RequestBody OrderItemsBatchRequest request) {
+        return cartSessions.applyChanges(id, request.items());
+    }
+
+    @PostMapping("/{id}/items:adjust")
+    public OrderResponse adjustItem(@PathVariable UUID id, @Valid @RequestBody OrderItemDelta request) {
+        return cartSessions.adjust(id, request.itemId(), request.delta());
     }
 
     @DeleteMapping("/{id}/items/{itemId}")
     public OrderResponse removeItem(@PathVariable UUID id, @PathVariable UUID itemId) {
-        return orderService.removeItem(id, itemId);
+        return cartSessions.remove(id, itemId);
     }
 
     @PostMapping("/{id}/checkout")
-    public OrderResponse checkout(@PathVariable UUID id) {
-        return orderService.checkout(id);
+    public OrderResponse checkout(@PathVariable UUID id,
+                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return checkoutGuard.checkout(id, idempotencyKey);
     }
 
     @PostMapping("/{id}/cancel")
     public OrderResponse cancel(@PathVariable UUID id) {
-        return orderService.cancelOrder(id);
+        return cartSessions.whileClosing(id, () -> orderService.cancelOrder(id));
     }
 }
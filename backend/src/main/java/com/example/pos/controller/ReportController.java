@@ -1,8 +1,13 @@
 package com.example.pos.controller;
 
+import com.example.pos.dto.DailySalesConsistencyResponse;
 import com.example.pos.dto.DailySalesReportResponse;
+import com.example.pos.dto.RollupRebuildResponse;
+import com.example.pos.dto.SalesGranularity;
+import com.example.pos.dto.SalesReportResponse;
 import com.example.pos.service.ReportService;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -22,4 +27,22 @@ public class ReportController {
     public DailySalesReportResponse dailySales(@RequestParam("date") LocalDate date) {
         return reportService.dailySales(date);
     }
+
+    @GetMapping("/sales")
+    public SalesReportResponse sales(@RequestParam("from") LocalDate from,
+                                     @RequestParam("to") LocalDate to,
+                                     @RequestParam(value = "granularity", defaultValue = "DAY") SalesGranularity granularity,
+                                     @RequestParam(value = "top", defaultValue = "10") int top) {
+        return reportService.sales(from, to, granularity, top);
+    }
+
+    @GetMapping("/daily-sales/consistency")
+    public DailySalesConsistencyResponse dailySalesConsistency(@RequestParam("date") LocalDate date) {
+        return reportService.checkConsistency(date);
+    }
+
+    @PostMapping("/daily-sales/rollup/rebuild")
+    public RollupRebuildResponse rebuildDailySalesRollup() {
+        return new RollupRebuildResponse(reportService.rebuildDailySalesRollup());
+    }
 }
@@ -0,0 +1,12 @@
+package com.example.pos.dto;
+
+import java.time.Instant;
+
+public record CatalogStats(
+    long version,
+    long hits,
+    long misses,
+    long rebuilds,
+    int itemCount,
+    Instant builtAt
+) {}
@@ -0,0 +1,13 @@
+package com.example.pos.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailySalesConsistencyResponse(
+    LocalDate date,
+    int rollupOrderCount,
+    BigDecimal rollupTotalSales,
+    int scannedOrderCount,
+    BigDecimal scannedTotalSales,
+    boolean consistent
+) {}
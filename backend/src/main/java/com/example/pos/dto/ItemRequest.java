@@ -1,5 +1,6 @@
 package com.example.pos.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -7,7 +8,7 @@ import java.math.BigDecimal;
 
 public record ItemRequest(
     @NotBlank String name,
-    @NotNull @Positive BigDecimal price,
+    @NotNull @Positive @Digits(integer = 12, fraction = 2, message = "price must be in whole paisa") BigDecimal price,
     @NotBlank String category,
     @NotBlank String itemCode,
     @NotBlank String pctCode
@@ -0,0 +1,10 @@
+package com.example.pos.dto;
+
+import java.time.Instant;
+
+public record OrderEvent(
+    long id,
+    OrderEventType type,
+    Instant at,
+    OrderResponse order
+) {}
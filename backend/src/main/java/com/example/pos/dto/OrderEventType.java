@@ -0,0 +1,12 @@
+package com.example.pos.dto;
+
+public enum OrderEventType {
+    CREATED,
+    LINE_CHANGED,
+    UPDATED,
+    CHECKED_OUT,
+    CANCELLED,
+    FISCALIZED,
+    /** The missed events can no longer be replayed; reload the orders and carry on. */
+    RESET
+}
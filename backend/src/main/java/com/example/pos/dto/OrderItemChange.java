@@ -0,0 +1,10 @@
+package com.example.pos.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.util.UUID;
+
+public record OrderItemChange(
+    @NotNull UUID itemId,
+    @PositiveOrZero int quantity
+) {}
@@ -0,0 +1,9 @@
+package com.example.pos.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.UUID;
+
+public record OrderItemDelta(
+    @NotNull UUID itemId,
+    int delta
+) {}
@@ -0,0 +1,9 @@
+package com.example.pos.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public record OrderItemsBatchRequest(
+    @NotEmpty List<@Valid OrderItemChange> items
+) {}
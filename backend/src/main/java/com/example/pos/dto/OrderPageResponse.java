@@ -0,0 +1,8 @@
+package com.example.pos.dto;
+
+import java.util.List;
+
+public record OrderPageResponse(
+    List<OrderResponse> items,
+    String nextCursor
+) {}
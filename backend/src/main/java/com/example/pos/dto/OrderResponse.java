@@ -1,5 +1,6 @@
 package com.example.pos.dto;
 
+import com.example.pos.entity.FiscalStatus;
 import com.example.pos.entity.OrderStatus;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -12,6 +13,7 @@ public record OrderResponse(
     String fiscalInvoiceNumber,
     String fiscalQrText,
     String fiscalVerificationUrl,
+    FiscalStatus fiscalStatus,
     BigDecimal subtotal,
     BigDecimal tax,
     BigDecimal total,
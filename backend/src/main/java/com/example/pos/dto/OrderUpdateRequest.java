@@ -1,5 +1,6 @@
 package com.example.pos.dto;
 
+import jakarta.validation.constraints.Digits;
 import java.math.BigDecimal;
 
 public record OrderUpdateRequest(
@@ -9,6 +10,6 @@ public record OrderUpdateRequest(
     String customerPntn,
     String customerTaxId,
     String notes,
-    BigDecimal discount,
+    @Digits(integer = 12, fraction = 2, message = "discount must be in whole paisa") BigDecimal discount,
     String paymentMode
 ) {}
@@ -0,0 +1,5 @@
+package com.example.pos.dto;
+
+public record RollupRebuildResponse(
+    int ordersProcessed
+) {}
@@ -0,0 +1,7 @@
+package com.example.pos.dto;
+
+public enum SalesGranularity {
+    HOUR,
+    DAY,
+    WEEK
+}
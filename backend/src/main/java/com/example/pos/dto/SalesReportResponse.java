@@ -0,0 +1,54 @@
+package com.example.pos.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record SalesReportResponse(
+    LocalDate from,
+    LocalDate to,
+    SalesGranularity granularity,
+    Totals totals,
+    List<Bucket> buckets,
+    List<PaymentModeSales> byPaymentMode,
+    List<CategorySales> byCategory,
+    List<ItemSales> topItems
+) {
+    public record Totals(
+        long orderCount,
+        BigDecimal subtotal,
+        BigDecimal discount,
+        BigDecimal tax,
+        BigDecimal total
+    ) {}
+
+    public record Bucket(
+        String period,
+        long orderCount,
+        BigDecimal subtotal,
+        BigDecimal discount,
+        BigDecimal tax,
+        BigDecimal total
+    ) {}
+
+    public record PaymentModeSales(
+        String paymentMode,
+        long orderCount,
+        BigDecimal tax,
+        BigDecimal total
+    ) {}
+
+    public record CategorySales(
+        String category,
+        long quantity,
+        BigDecimal sales
+    ) {}
+
+    public record ItemSales(
+        String itemCode,
+        String itemName,
+        String category,
+        long quantity,
+        BigDecimal sales
+    ) {}
+}
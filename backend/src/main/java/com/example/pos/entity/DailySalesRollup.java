@@ -0,0 +1,44 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * Running PAID order count and total per local business date and payment mode.
+ * Totals are kept in minor units (paisa) so SQLite adds integers, not REALs.
+ */
+@Entity
+@Table(name = "daily_sales_rollup")
+public class DailySalesRollup {
+    @EmbeddedId
+    private DailySalesRollupId id;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "total_sales_minor", nullable = false)
+    private long totalSalesMinor;
+
+    protected DailySalesRollup() {
+    }
+
+    public DailySalesRollup(DailySalesRollupId id, long orderCount, long totalSalesMinor) {
+        this.id = id;
+        this.orderCount = orderCount;
+        this.totalSalesMinor = totalSalesMinor;
+    }
+
+    public DailySalesRollupId getId() {
+        return id;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public long getTotalSalesMinor() {
+        return totalSalesMinor;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class DailySalesRollupId implements Serializable {
+    @Column(name = "business_date", nullable = false)
+    private String businessDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_mode", nullable = false)
+    private PaymentMode paymentMode;
+
+    protected DailySalesRollupId() {
+    }
+
+    public DailySalesRollupId(String businessDate, PaymentMode paymentMode) {
+        this.businessDate = businessDate;
+        this.paymentMode = paymentMode;
+    }
+
+    public String getBusinessDate() {
+        return businessDate;
+    }
+
+    public PaymentMode getPaymentMode() {
+        return paymentMode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DailySalesRollupId other)) return false;
+        return Objects.equals(businessDate, other.businessDate) && paymentMode == other.paymentMode;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(businessDate, paymentMode);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.pos.entity;
+
+public enum FiscalStatus {
+    PENDING,
+    FISCALIZED
+}
@@ -0,0 +1,43 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * High-water mark of the invoice numbers reserved for one terminal on one
+ * local business date.
+ */
+@Entity
+@Table(name = "invoice_sequences")
+public class InvoiceSequence {
+    @EmbeddedId
+    private InvoiceSequenceId id;
+
+    @Column(name = "high_water", nullable = false)
+    private long highWater;
+
+    @Column(name = "released", nullable = false)
+    private boolean released;
+
+    protected InvoiceSequence() {
+    }
+
+    public InvoiceSequence(InvoiceSequenceId id, long highWater) {
+        this.id = id;
+        this.highWater = highWater;
+    }
+
+    public InvoiceSequenceId getId() {
+        return id;
+    }
+
+    public long getHighWater() {
+        return highWater;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+}
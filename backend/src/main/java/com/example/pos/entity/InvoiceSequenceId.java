@@ -0,0 +1,43 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class InvoiceSequenceId implements Serializable {
+    @Column(name = "terminal_id", nullable = false)
+    private String terminalId;
+
+    @Column(name = "business_date", nullable = false)
+    private String businessDate;
+
+    protected InvoiceSequenceId() {
+    }
+
+    public InvoiceSequenceId(String terminalId, String businessDate) {
+        this.terminalId = terminalId;
+        this.businessDate = businessDate;
+    }
+
+    public String getTerminalId() {
+        return terminalId;
+    }
+
+    public String getBusinessDate() {
+        return businessDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InvoiceSequenceId other)) return false;
+        return Objects.equals(terminalId, other.terminalId) && Objects.equals(businessDate, other.businessDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(terminalId, businessDate);
+    }
+}
@@ -2,11 +2,9 @@ package com.example.pos.entity;
 
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
-import org.hibernate.annotations.UuidGenerator;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
@@ -17,8 +15,7 @@ import java.util.UUID;
 @Table(name = "items")
 public class Item {
     @Id
-    @GeneratedValue
-    @UuidGenerator
+    @UuidV7
     @Column(name = "id", nullable = false, updatable = false)
     private UUID id;
 
@@ -1,17 +1,16 @@
 package com.example.pos.entity;
 
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.UuidGenerator;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -22,11 +21,15 @@ import java.util.UUID;
 @Table(name = "orders")
 public class Order {
     @Id
-    @GeneratedValue
-    @UuidGenerator
+    @UuidV7
     @Column(name = "id", nullable = false, updatable = false)
     private UUID id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Running sum of the line totals, moved by each line edit in OrderService
     @Column(name = "subtotal", nullable = false)
     private BigDecimal subtotal = BigDecimal.ZERO;
 
@@ -83,6 +86,16 @@ public class Order {
     @Column(name = "fiscal_verification_url")
     private String fiscalVerificationUrl;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "fiscal_status")
+    private FiscalStatus fiscalStatus;
+
+    @Column(name = "checkout_key")
+    private String checkoutKey;
+
+    @Column(name = "cart_flush_key")
+    private String cartFlushKey;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -98,6 +111,10 @@ public class Order {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public BigDecimal getSubtotal() {
         return subtotal;
     }
@@ -242,6 +259,30 @@ public class Order {
         this.fiscalVerificationUrl = fiscalVerificationUrl;
     }
 
+    public FiscalStatus getFiscalStatus() {
+        return fiscalStatus;
+    }
+
+    public void setFiscalStatus(FiscalStatus fiscalStatus) {
+        this.fiscalStatus = fiscalStatus;
+    }
+
+    public String getCheckoutKey() {
+        return checkoutKey;
+    }
+
+    public void setCheckoutKey(String checkoutKey) {
+        this.checkoutKey = checkoutKey;
+    }
+
+    public String getCartFlushKey() {
+        return cartFlushKey;
+    }
+
+    public void setCartFlushKey(String cartFlushKey) {
+        this.cartFlushKey = cartFlushKey;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,57 @@
+package com.example.pos.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+
+/**
+ * RFC 9562 version 7 UUIDs: 48 bits of Unix epoch millis, then a 12 bit counter
+ * (seeded randomly each millisecond), then 62 random bits. The counter keeps ids
+ * strictly increasing within a JVM even when many are generated in the same
+ * millisecond or the clock steps backwards.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int COUNTER_MASK = 0xFFF;
+
+    private static long lastMillis = -1;
+    private static int counter;
+
+    public static UUID next() {
+        long millis;
+        int sequence;
+        synchronized (UuidV7Generator.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                // Leave headroom so the counter rarely overflows within a millisecond
+                counter = RANDOM.nextInt(COUNTER_MASK + 1) >>> 1;
+            } else if (counter < COUNTER_MASK) {
+                counter++;
+            } else {
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+        long msb = (millis << 16) | 0x7000L | sequence;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -3,6 +3,7 @@ package com.example.pos.exception;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import com.example.pos.pra.PraUnavailableException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -34,6 +35,16 @@ public class GlobalExceptionHandler {
         return buildError(HttpStatus.BAD_REQUEST, message, request.getRequestURI());
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiError> handleConflict(ConflictException ex, HttpServletRequest request) {
+        return buildError(HttpStatus.CONFLICT, ex.getMessage(), request.getRequestURI());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleOptimisticLock(OptimisticLockingFailureException ex, HttpServletRequest request) {
+        return buildError(HttpStatus.CONFLICT, "Order was changed by another terminal; reload and try again", request.getRequestURI());
+    }
+
     @ExceptionHandler(PraUnavailableException.class)
     public ResponseEntity<ApiError> handlePraUnavailable(PraUnavailableException ex, HttpServletRequest request) {
         return buildError(HttpStatus.BAD_GATEWAY, ex.getMessage(), request.getRequestURI());
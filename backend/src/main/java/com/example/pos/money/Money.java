@@ -0,0 +1,131 @@
+package com.example.pos.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * An amount in paisa (minor units, two decimal places). Order and invoice math
+ * runs on the {@code long}; {@link BigDecimal} is only used at the JSON and
+ * database boundary. Rounding is HALF_UP (ties away from zero), the same as
+ * {@code setScale(2, RoundingMode.HALF_UP)}. Arithmetic overflow throws
+ * {@link ArithmeticException} rather than wrapping.
+ */
+public record Money(long paisa) implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    /** Basis points in a whole (a rate of 1 is 10 000 bp). */
+    public static final long BASIS_POINTS = 10_000;
+
+    // A proportional share is kept to 10 decimal places before it is applied
+    private static final long SHARE_SCALE = 10_000_000_000L;
+
+    public static Money ofPaisa(long paisa) {
+        return paisa == 0 ? ZERO : new Money(paisa);
+    }
+
+    /**
+     * Exact conversion; {@code null} is zero. Amounts with more than two
+     * decimal places are rejected instead of rounded.
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return ZERO;
+        }
+        try {
+            return ofPaisa(amount.movePointRight(2).longValueExact());
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is not a whole number of paisa", ex);
+        }
+    }
+
+    /**
+     * A rate such as {@code 0.16} as basis points (1600). Rates finer than a
+     * basis point are rejected.
+     */
+    public static long basisPoints(BigDecimal rate) {
+        try {
+            return rate.movePointRight(4).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Rate " + rate.toPlainString() + " is finer than a basis point", ex);
+        }
+    }
+
+    public Money plus(Money other) {
+        return ofPaisa(Math.addExact(paisa, other.paisa));
+    }
+
+    public Money minus(Money other) {
+        return ofPaisa(Math.subtractExact(paisa, other.paisa));
+    }
+
+    public Money times(long quantity) {
+        return ofPaisa(Math.multiplyExact(paisa, quantity));
+    }
+
+    /** This amount at {@code basisPoints}, rounded HALF_UP to the paisa. */
+    public Money atRate(long basisPoints) {
+        return ofPaisa(mulDivHalfUp(paisa, basisPoints, BASIS_POINTS));
+    }
+
+    /**
+     * The part of this amount that {@code part} is of {@code whole}, rounded
+     * twice as order discounts have always been spread over invoice lines: the
+     * ratio to 10 decimal places, then the share to the paisa.
+     */
+    public Money shareOf(Money part, Money whole) {
+        long ratio = mulDivHalfUp(part.paisa, SHARE_SCALE, whole.paisa);
+        return ofPaisa(mulDivHalfUp(ratio, paisa, SHARE_SCALE));
+    }
+
+    public Money max(Money other) {
+        return paisa >= other.paisa ? this : other;
+    }
+
+    public int signum() {
+        return Long.signum(paisa);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(paisa, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(paisa, other.paisa);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    /**
+     * {@code a * b / divisor} rounded HALF_UP, exact for any inputs. Stays on
+     * {@code long} unless the product overflows.
+     */
+    public static long mulDivHalfUp(long a, long b, long divisor) {
+        long high = Math.multiplyHigh(a, b);
+        long product = a * b;
+        if ((high == 0 && product >= 0) || (high == -1 && product < 0)) {
+            return divHalfUp(product, divisor);
+        }
+        return new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)))
+            .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+            .longValueExact();
+    }
+
+    /** {@code dividend / divisor} rounded HALF_UP. */
+    public static long divHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        // Round away from zero when the remainder is at least half the divisor
+        if (Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            return quotient + (((dividend ^ divisor) < 0) ? -1 : 1);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.pos.pra;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Read timeout derived from recent successful PRA latencies: a multiple of the
+ * p95 over a sliding window, clamped to [min, max]. Until enough samples exist
+ * the maximum is used, so a cold start never times out a healthy call.
+ */
+class AdaptiveTimeout {
+    static final int WINDOW = 64;
+    static final int MIN_SAMPLES = 10;
+    static final int MULTIPLIER = 3;
+
+    private final long minMillis;
+    private final long maxMillis;
+    private final long[] samples = new long[WINDOW];
+    private int count;
+    private int next;
+
+    AdaptiveTimeout(Duration min, Duration max) {
+        this.minMillis = min.toMillis();
+        this.maxMillis = max.toMillis();
+    }
+
+    synchronized void record(Duration latency) {
+        samples[next] = latency.toMillis();
+        next = (next + 1) % WINDOW;
+        count = Math.min(count + 1, WINDOW);
+    }
+
+    synchronized Duration current() {
+        if (count < MIN_SAMPLES) {
+            return Duration.ofMillis(maxMillis);
+        }
+        long[] window = Arrays.copyOf(samples, count);
+        Arrays.sort(window);
+        long p95 = window[(int) Math.ceil(0.95 * count) - 1];
+        long timeout = Math.max(minMillis, Math.min(maxMillis, p95 * MULTIPLIER));
+        return Duration.ofMillis(timeout);
+    }
+}
@@ -1,93 +1,254 @@
 package com.example.pos.pra;
 
+import com.example.pos.pra.dto.PraBatchItemResult;
 import com.example.pos.pra.dto.PraFiscalizationResult;
 import com.example.pos.pra.dto.PraHealth;
 import com.example.pos.pra.dto.PraInvoiceModel;
 import com.example.pos.pra.ims.ImsInvoiceResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Calls the PRA IMS cloud API over a pooled keep-alive connection. Every call
+ * passes through a bulkhead (bounded concurrency, no queueing) and a circuit
+ * breaker, and gets a read timeout adapted to recent latencies. When either
+ * rejects the call it fails fast with {@link PraUnavailableException}; the
+ * fiscalization outbox then retries later. A client-error response is returned
+ * as a failed result instead, so one bad invoice neither holds up the outbox
+ * nor counts against the breaker.
+ */
 @Component
 public class CloudPraFiscalizationClient implements PraFiscalizationClient {
     private static final Logger logger = LoggerFactory.getLogger(CloudPraFiscalizationClient.class);
-    
+
     private final PraProperties props;
+    private final HttpComponentsClientHttpRequestFactory requestFactory;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final PraAuditLog auditLog;
+    private final AdaptiveTimeout readTimeout;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final ExecutorService batchExecutor;
+    private final RateLimiter batchLimiter;
 
-    public CloudPraFiscalizationClient(PraProperties props, RestTemplateBuilder builder, ObjectMapper objectMapper) {
+    public CloudPraFiscalizationClient(PraProperties props, RestTemplateBuilder builder, ObjectMapper objectMapper,
+                                       MeterRegistry meterRegistry, PraAuditLog auditLog) {
         this.props = props;
         this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.auditLog = auditLog;
+        this.readTimeout = new AdaptiveTimeout(props.getMinReadTimeout(), props.getMaxReadTimeout());
+
+        this.requestFactory = PraHttpClients.pooled(props, readTimeout, meterRegistry);
         this.restTemplate = builder
-            .setConnectTimeout(Duration.ofSeconds(10))
-            .setReadTimeout(Duration.ofSeconds(30))
+            .requestFactory(() -> requestFactory)
             .build();
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(20)
+            .minimumNumberOfCalls(5)
+            .failureRateThreshold(props.getCircuitFailureRateThreshold())
+            .slowCallDurationThreshold(props.getCircuitSlowCallThreshold())
+            .slowCallRateThreshold(props.getCircuitFailureRateThreshold())
+            .waitDurationInOpenState(props.getCircuitOpenDuration())
+            // Half-open on a timer, so health reflects recovery even when nobody calls PRA
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .permittedNumberOfCallsInHalfOpenState(2)
+            // Only outages count; a 4xx is returned from post as a result and records as a success
+            .recordExceptions(PraUnavailableException.class)
+            .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(props.getMaxConcurrentCalls())
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker("pra");
+        this.bulkhead = bulkheads.bulkhead("pra");
+        this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+            logger.warn("PRA circuit {}", event.getStateTransition()));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+
+        // Platform threads (Java 17); each one spends its life blocked on IMS I/O
+        AtomicInteger batchThreads = new AtomicInteger();
+        this.batchExecutor = Executors.newFixedThreadPool(props.getBatchConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "pra-batch-" + batchThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchLimiter = RateLimiter.of("pra-batch", RateLimiterConfig.custom()
+            .limitForPeriod(props.getBatchRatePerSecond())
+            .limitRefreshPeriod(Duration.ofSeconds(1))
+            .timeoutDuration(Duration.ofMinutes(10))
+            .build());
     }
 
     @Override
     public PraFiscalizationResult fiscalize(PraInvoiceModel invoice) {
-        String url = props.getApiUrl();
         String token = props.getApiToken();
-
         if (token == null || token.isBlank() || token.contains("placeholder")) {
+            skipped("not_configured");
             return new PraFiscalizationResult(false, null, null, null, "API token not configured");
         }
 
-        // Log raw JSON request
         try {
-            String rawJson = objectMapper.writeValueAsString(invoice);
-            logger.info("PRA Request -> URL: {} | Body: {}", url, rawJson);
-        } catch (Exception e) {
-            logger.warn("Failed to serialize request for logging");
+            return bulkhead.executeSupplier(() ->
+                circuitBreaker.executeSupplier(() -> post(invoice, props.getApiUrl(), token)));
+        } catch (CallNotPermittedException ex) {
+            skipped("circuit_open");
+            throw new PraUnavailableException("PRA circuit open; fiscalization deferred");
+        } catch (BulkheadFullException ex) {
+            skipped("bulkhead_full");
+            throw new PraUnavailableException("PRA busy; fiscalization deferred");
+        }
+    }
+
+    private PraFiscalizationResult post(PraInvoiceModel invoice, String url, String token) {
+        // Serialize once: the same bytes go on the wire and to the audit log
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(invoice);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Invoice could not be serialized: " + ex.getOriginalMessage(), ex);
         }
+        auditLog.request(url, invoice.usin(), body);
 
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", "Bearer " + token);
-        headers.set("Content-Type", "application/json");
+        headers.setContentType(MediaType.APPLICATION_JSON);
         headers.set("User-Agent", "curl/7.88.1");
         headers.set("Accept", "*/*");
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "unavailable";
         try {
             ResponseEntity<ImsInvoiceResponse> response = restTemplate.exchange(
-                url, HttpMethod.POST, new HttpEntity<>(invoice, headers), ImsInvoiceResponse.class
+                url, HttpMethod.POST, new HttpEntity<>(body, headers), ImsInvoiceResponse.class
             );
 
-            ImsInvoiceResponse body = response.getBody();
-            if (body == null || body.invoiceNumber() == null || body.invoiceNumber().isBlank()) {
+            ImsInvoiceResponse responseBody = response.getBody();
+            if (responseBody == null || responseBody.invoiceNumber() == null || responseBody.invoiceNumber().isBlank()) {
+                outcome = "rejected";
+                auditLog.failure(invoice.usin(), body, "Missing invoice number in response");
                 return new PraFiscalizationResult(false, null, null, null, "Missing invoice number in response");
             }
 
-            String verifyUrl = props.getVerifyUrlBase() + body.invoiceNumber();
-            logger.info("PRA Response -> Invoice: {}", body.invoiceNumber());
-            
-            return new PraFiscalizationResult(true, body.invoiceNumber(), verifyUrl, verifyUrl, body.response());
-            
+            String verifyUrl = props.getVerifyUrlBase() + responseBody.invoiceNumber();
+            logger.info("PRA Response -> USIN: {} | Invoice: {}", invoice.usin(), responseBody.invoiceNumber());
+            outcome = "success";
+
+            return new PraFiscalizationResult(true, responseBody.invoiceNumber(), verifyUrl, verifyUrl, responseBody.response());
+
         } catch (HttpStatusCodeException ex) {
+            outcome = "http_" + ex.getStatusCode().value();
             logger.error("PRA Error -> Status: {}, Body: {}", ex.getStatusCode(), ex.getResponseBodyAsString());
+            auditLog.failure(invoice.usin(), body, ex.getStatusCode().toString());
+            if (rejectsInvoice(ex.getStatusCode().value())) {
+                // PRA is up and answered about this invoice; a result, not an outage
+                return new PraFiscalizationResult(false, null, null, null,
+                    "PRA rejected invoice: " + ex.getStatusCode() + " " + ex.getResponseBodyAsString());
+            }
             throw new PraUnavailableException("PRA API error: " + ex.getStatusCode());
         } catch (Exception ex) {
             logger.error("PRA Error -> {}", ex.getMessage());
+            auditLog.failure(invoice.usin(), body, ex.getMessage());
             throw new PraUnavailableException("PRA API unavailable: " + ex.getMessage());
+        } finally {
+            long nanos = sample.stop(meterRegistry.timer("pra.request", "environment", props.getEnvironment(), "outcome", outcome));
+            if ("success".equals(outcome)) {
+                readTimeout.record(Duration.ofNanos(nanos));
+            }
         }
     }
 
+    /**
+     * A 4xx other than 408 and 429 is about the invoice itself (bad NTN,
+     * malformed payload, duplicate USIN): sending it again soon fails the
+     * same way, while other invoices can still go through.
+     */
+    private static boolean rejectsInvoice(int status) {
+        return status >= 400 && status < 500 && status != 408 && status != 429;
+    }
+
+    /**
+     * Submits up to {@code batch-concurrency} invoices at a time, paced to
+     * {@code batch-rate-per-second}. Each call still goes through the bulkhead
+     * and circuit breaker, so an outage mid-batch fails the remainder fast.
+     */
+    @Override
+    public List<PraBatchItemResult> fiscalizeAll(List<PraInvoiceModel> invoices) {
+        List<CompletableFuture<PraBatchItemResult>> submissions = invoices.stream()
+            .map(invoice -> CompletableFuture.supplyAsync(() -> submitPaced(invoice), batchExecutor))
+            .toList();
+        return submissions.stream()
+            .map(CompletableFuture::join)
+            .toList();
+    }
+
+    private PraBatchItemResult submitPaced(PraInvoiceModel invoice) {
+        try {
+            RateLimiter.waitForPermission(batchLimiter);
+            return new PraBatchItemResult(invoice.usin(), fiscalize(invoice));
+        } catch (RuntimeException ex) {
+            return PraBatchItemResult.failed(invoice.usin(), ex.getMessage());
+        }
+    }
+
+    private void skipped(String reason) {
+        meterRegistry.counter("pra.request.skipped", "environment", props.getEnvironment(), "reason", reason).increment();
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        batchExecutor.shutdownNow();
+        requestFactory.destroy();
+    }
+
     @Override
     public PraHealth health() {
+        String circuitState = circuitBreaker.getState().name();
         String token = props.getApiToken();
         if (token == null || token.isBlank() || token.contains("placeholder")) {
-            return new PraHealth("UNAVAILABLE", "Token not configured");
+            return new PraHealth("UNAVAILABLE", "Token not configured", circuitState);
+        }
+        if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            return new PraHealth("DEGRADED", "Circuit open; fiscalization deferred (" + props.getEnvironment() + ")", circuitState);
         }
-        return new PraHealth("OK", "Cloud API configured (" + props.getEnvironment() + ")");
+        return new PraHealth("OK", "Cloud API configured (" + props.getEnvironment() + ")", circuitState);
     }
 }
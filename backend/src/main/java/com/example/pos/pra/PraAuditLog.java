@@ -0,0 +1,73 @@
+package com.example.pos.pra;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Off-thread audit trail of PRA request bodies, written to the {@code pra.audit}
+ * logger. Requests are sampled at {@code pra.audit-sample-rate}; failures are
+ * always kept. Bodies are truncated to {@code pra.audit-max-bytes}, and when
+ * the queue is full entries are dropped rather than slowing the caller.
+ */
+@Component
+public class PraAuditLog {
+    private static final Logger audit = LoggerFactory.getLogger("pra.audit");
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final double sampleRate;
+    private final int maxBytes;
+    private final Counter dropped;
+    private final ThreadPoolExecutor executor;
+
+    public PraAuditLog(PraProperties props, MeterRegistry meterRegistry) {
+        this.sampleRate = props.getAuditSampleRate();
+        this.maxBytes = props.getAuditMaxBytes();
+        this.dropped = meterRegistry.counter("pra.audit.dropped");
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "pra-audit");
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, pool) -> dropped.increment());
+    }
+
+    /**
+     * Records a request body that is about to be sent. {@code body} is the exact
+     * buffer written to the wire and must not be modified afterwards.
+     */
+    public void request(String url, String usin, byte[] body) {
+        if (!audit.isInfoEnabled() || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        executor.execute(() -> audit.info("PRA Request -> URL: {} | USIN: {} | Body: {}", url, usin, truncate(body)));
+    }
+
+    public void failure(String usin, byte[] body, String error) {
+        executor.execute(() -> audit.warn("PRA Failure -> USIN: {} | Error: {} | Body: {}", usin, error, truncate(body)));
+    }
+
+    private String truncate(byte[] body) {
+        if (body.length <= maxBytes) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+        return new String(body, 0, maxBytes, StandardCharsets.UTF_8) + "...(" + body.length + " bytes)";
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(2, TimeUnit.SECONDS);
+    }
+}
@@ -1,18 +1,28 @@
 package com.example.pos.pra;
 
+import com.example.pos.pra.dto.PraBacklog;
+import com.example.pos.pra.dto.PraBatchItemResult;
+import com.example.pos.pra.dto.PraBatchResult;
 import com.example.pos.pra.dto.PraFiscalizationResult;
 import com.example.pos.pra.dto.PraHealth;
 import com.example.pos.pra.dto.PraInvoiceModel;
+import com.example.pos.service.FiscalizationOutbox;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/pra")
 public class PraController {
     private final PraFiscalizationClient fiscalizationClient;
+    private final FiscalizationOutbox fiscalizationOutbox;
 
-    public PraController(@Qualifier("praFiscalizationClient") PraFiscalizationClient fiscalizationClient) {
+    public PraController(@Qualifier("praFiscalizationClient") PraFiscalizationClient fiscalizationClient,
+                         FiscalizationOutbox fiscalizationOutbox) {
         this.fiscalizationClient = fiscalizationClient;
+        this.fiscalizationOutbox = fiscalizationOutbox;
     }
 
     @GetMapping("/health")
@@ -20,8 +30,25 @@ public class PraController {
         return fiscalizationClient.health();
     }
 
+    @GetMapping("/backlog")
+    public PraBacklog backlog() {
+        return fiscalizationOutbox.backlog();
+    }
+
     @PostMapping("/fiscalize")
     public PraFiscalizationResult fiscalize(@RequestBody PraInvoiceModel invoice) {
         return fiscalizationClient.fiscalize(invoice);
     }
+
+    @PostMapping("/admin/fiscalize-batch")
+    public PraBatchResult fiscalizeBatch(@RequestBody List<PraInvoiceModel> invoices) {
+        long started = System.nanoTime();
+        List<PraBatchItemResult> results = fiscalizationClient.fiscalizeAll(invoices);
+        return PraBatchResult.of(results, Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    @PostMapping("/admin/backlog/drain")
+    public PraBatchResult drainBacklog(@RequestParam(value = "limit", defaultValue = "200") int limit) {
+        return fiscalizationOutbox.drainBacklog(limit);
+    }
 }
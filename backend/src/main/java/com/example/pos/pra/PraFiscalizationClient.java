@@ -1,10 +1,29 @@
 package com.example.pos.pra;
 
+import com.example.pos.pra.dto.PraBatchItemResult;
 import com.example.pos.pra.dto.PraFiscalizationResult;
 import com.example.pos.pra.dto.PraHealth;
 import com.example.pos.pra.dto.PraInvoiceModel;
 
+import java.util.List;
+
 public interface PraFiscalizationClient {
     PraFiscalizationResult fiscalize(PraInvoiceModel invoice);
     PraHealth health();
+
+    /**
+     * Submits many invoices and reports one result per invoice, in input order.
+     * A failed invoice never aborts the rest. The default sends them one by one.
+     */
+    default List<PraBatchItemResult> fiscalizeAll(List<PraInvoiceModel> invoices) {
+        return invoices.stream()
+            .map(invoice -> {
+                try {
+                    return new PraBatchItemResult(invoice.usin(), fiscalize(invoice));
+                } catch (RuntimeException ex) {
+                    return PraBatchItemResult.failed(invoice.usin(), ex.getMessage());
+                }
+            })
+            .toList();
+    }
 }
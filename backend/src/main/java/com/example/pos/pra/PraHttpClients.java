@@ -0,0 +1,88 @@
+package com.example.pos.pra;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Keep-alive transport for the IMS API: a small pool of persistent HTTP/1.1
+ * connections, so the TCP and TLS handshakes are paid once per connection
+ * rather than once per invoice.
+ */
+final class PraHttpClients {
+    private static final TimeValue CONNECTION_TTL = TimeValue.ofMinutes(5);
+    private static final TimeValue IDLE_EVICTION = TimeValue.ofSeconds(30);
+    private static final TimeValue VALIDATE_AFTER_INACTIVITY = TimeValue.ofSeconds(5);
+
+    private PraHttpClients() {
+    }
+
+    /**
+     * Pooled request factory whose per-request response timeout comes from
+     * {@code readTimeout}. Pool gauges are bound as {@code httpcomponents.httpclient.pool.*}
+     * and every new connection increments {@code pra.http.connections.opened}.
+     */
+    static HttpComponentsClientHttpRequestFactory pooled(PraProperties props, AdaptiveTimeout readTimeout,
+                                                         MeterRegistry meterRegistry) {
+        Counter opened = Counter.builder("pra.http.connections.opened")
+            .description("Connections opened to PRA; compare with pra.request to get the reuse rate")
+            .register(meterRegistry);
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(props.getMaxConcurrentCalls())
+            .setMaxConnPerRoute(props.getMaxConcurrentCalls())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(props.getConnectTimeout()))
+                .setTimeToLive(CONNECTION_TTL)
+                .setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY)
+                .build())
+            .setConnectionFactory(socket -> {
+                opened.increment();
+                return ManagedHttpClientConnectionFactory.INSTANCE.createConnection(socket);
+            })
+            .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "pra").bindTo(meterRegistry);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .evictExpiredConnections()
+            .evictIdleConnections(IDLE_EVICTION)
+            .disableAutomaticRetries()
+            .build();
+        return new AdaptiveTimeoutRequestFactory(httpClient, readTimeout);
+    }
+
+    private static final class AdaptiveTimeoutRequestFactory extends HttpComponentsClientHttpRequestFactory {
+        private final AdaptiveTimeout readTimeout;
+
+        AdaptiveTimeoutRequestFactory(CloseableHttpClient httpClient, AdaptiveTimeout readTimeout) {
+            super(httpClient);
+            this.readTimeout = readTimeout;
+        }
+
+        @Override
+        protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+            Duration timeout = readTimeout.current();
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(RequestConfig.custom()
+                .setResponseTimeout(Timeout.of(timeout))
+                .build());
+            return context;
+        }
+    }
+}
@@ -3,50 +3,60 @@ package com.example.pos.pra;
 import com.example.pos.entity.Order;
 import com.example.pos.entity.OrderItem;
 import com.example.pos.entity.PaymentMode;
+import com.example.pos.money.Money;
 import com.example.pos.pra.dto.PraInvoiceItem;
 import com.example.pos.pra.dto.PraInvoiceModel;
+import com.example.pos.tax.TaxEngine;
+import com.example.pos.tax.TaxRate;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 @Component
 public class PraInvoiceMapper {
     private static final DateTimeFormatter DATE_FORMAT =
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.of("Asia/Karachi"));
-    private static final BigDecimal HUNDRED = new BigDecimal("100");
 
     private final PraProperties props;
+    private final TaxEngine taxEngine;
 
-    public PraInvoiceMapper(PraProperties props) {
+    public PraInvoiceMapper(PraProperties props, TaxEngine taxEngine) {
         this.props = props;
+        this.taxEngine = taxEngine;
     }
 
     public PraInvoiceModel fromOrder(Order order) {
-        BigDecimal gstRate = getGstRate(order.getPaymentMode());
-        BigDecimal rawTotal = calcRawTotal(order);
+        PaymentMode mode = order.getPaymentMode();
+        long soldAt = order.getCreatedAt().toEpochMilli();
+        Money rawTotal = calcRawTotal(order);
         BigDecimal discount = defaultZero(order.getDiscount());
-        
-        List<PraInvoiceItem> items = order.getItems().stream()
-            .map(item -> mapItem(item, gstRate, discount, rawTotal))
-            .toList();
-
-        BigDecimal totalSale = sum(items, PraInvoiceItem::saleValue);
-        BigDecimal totalTax = sum(items, PraInvoiceItem::taxCharged);
-        BigDecimal totalQty = sum(items, PraInvoiceItem::quantity);
-        BigDecimal totalBill = totalSale.add(totalTax).max(BigDecimal.ZERO);
+        Money totalDiscount = Money.of(discount);
+
+        List<PraInvoiceItem> items = new ArrayList<>(order.getItems().size());
+        Money totalSale = Money.ZERO;
+        Money totalTax = Money.ZERO;
+        long totalQty = 0;
+        for (OrderItem orderItem : order.getItems()) {
+            MappedLine line = mapItem(orderItem, mode, soldAt, totalDiscount, rawTotal);
+            items.add(line.item());
+            totalSale = totalSale.plus(line.saleValue());
+            totalTax = totalTax.plus(line.taxCharged());
+            totalQty += orderItem.getQuantity();
+        }
+        Money totalBill = totalSale.plus(totalTax);
 
         return new PraInvoiceModel(
             props.getPosId(),
             order.getInvoiceNumber(),
             DATE_FORMAT.format(order.getCreatedAt()),
-            totalSale,
-            totalTax,
-            totalBill,
-            totalQty,
+            totalSale.toBigDecimal(),
+            totalTax.toBigDecimal(),
+            totalBill.signum() < 0 ? BigDecimal.ZERO : totalBill.toBigDecimal(),
+            BigDecimal.valueOf(totalQty),
             mapPaymentMode(order.getPaymentMode()),
             props.getInvoiceType(),
             items,
@@ -61,67 +71,58 @@ public class PraInvoiceMapper {
         );
     }
 
-    private PraInvoiceItem mapItem(OrderItem orderItem, BigDecimal gstRate, 
-                                    BigDecimal totalDiscount, BigDecimal rawTotal) {
+    private MappedLine mapItem(OrderItem orderItem, PaymentMode mode, long soldAt,
+                               Money totalDiscount, Money rawTotal) {
         var item = orderItem.getItem();
         
         if (item.getItemCode() == null || item.getItemCode().isBlank()) {
             throw new IllegalArgumentException("Item code required for fiscalization");
         }
         
-        BigDecimal qty = BigDecimal.valueOf(orderItem.getQuantity());
-        BigDecimal lineTotal = defaultZero(orderItem.getLineTotal());
+        Money lineTotal = Money.of(orderItem.getLineTotal());
         
-        // Proportional discount
-        BigDecimal itemDiscount = BigDecimal.ZERO;
+        Money itemDiscount = null;
         if (rawTotal.signum() > 0 && totalDiscount.signum() > 0) {
-            itemDiscount = lineTotal.divide(rawTotal, 10, RoundingMode.HALF_UP)
-                .multiply(totalDiscount)
-                .setScale(2, RoundingMode.HALF_UP);
+            itemDiscount = totalDiscount.shareOf(lineTotal, rawTotal);
         }
         
-        BigDecimal saleValue = lineTotal.subtract(itemDiscount).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal taxRate = gstRate.multiply(HUNDRED).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal taxCharged = saleValue.multiply(gstRate).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal totalAmount = saleValue.add(taxCharged).setScale(2, RoundingMode.HALF_UP);
+        TaxRate rate = taxEngine.rateFor(mode, item.getPctCode(), item.getCategory(), soldAt);
+        Money saleValue = itemDiscount == null ? lineTotal : lineTotal.minus(itemDiscount);
+        Money taxCharged = saleValue.atRate(rate.basisPoints());
+        Money totalAmount = saleValue.plus(taxCharged);
         
         String pctCode = item.getPctCode();
         if (pctCode == null || pctCode.isBlank() || "00000000".equals(pctCode)) {
             pctCode = props.getDefaultPctCode();
         }
 
-        return new PraInvoiceItem(
+        PraInvoiceItem mapped = new PraInvoiceItem(
             item.getItemCode(),
             item.getName(),
             pctCode,
-            qty,
-            taxRate,
-            saleValue,
-            taxCharged,
-            totalAmount,
+            BigDecimal.valueOf(orderItem.getQuantity()),
+            rate.percent(),
+            saleValue.toBigDecimal(),
+            taxCharged.toBigDecimal(),
+            totalAmount.toBigDecimal(),
             props.getInvoiceType(),
-            itemDiscount,
+            itemDiscount == null ? BigDecimal.ZERO : itemDiscount.toBigDecimal(),
             BigDecimal.ZERO,
             null
         );
-    }
-
-    private BigDecimal getGstRate(PaymentMode mode) {
-        return BigDecimal.valueOf(mode == PaymentMode.CARD ? props.getCardGstRate() : props.getCashGstRate());
+        return new MappedLine(mapped, saleValue, taxCharged);
     }
 
     private int mapPaymentMode(PaymentMode mode) {
         return mode == PaymentMode.CARD ? 2 : 1;
     }
 
-    private BigDecimal calcRawTotal(Order order) {
-        return order.getItems().stream()
-            .map(i -> defaultZero(i.getLineTotal()))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private BigDecimal sum(List<PraInvoiceItem> items, java.util.function.Function<PraInvoiceItem, BigDecimal> getter) {
-        return items.stream().map(getter).reduce(BigDecimal.ZERO, BigDecimal::add);
+    private Money calcRawTotal(Order order) {
+        Money rawTotal = Money.ZERO;
+        for (OrderItem item : order.getItems()) {
+            rawTotal = rawTotal.plus(Money.of(item.getLineTotal()));
+        }
+        return rawTotal;
     }
 
     private BigDecimal defaultZero(BigDecimal val) {
@@ -134,4 +135,6 @@ public class PraInvoiceMapper {
         }
         return null;
     }
+
+    private record MappedLine(PraInvoiceItem item, Money saleValue, Money taxCharged) {}
 }
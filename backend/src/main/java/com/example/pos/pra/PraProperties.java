@@ -2,6 +2,8 @@ package com.example.pos.pra;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @ConfigurationProperties(prefix = "pra")
 public class PraProperties {
     
@@ -22,6 +24,24 @@ public class PraProperties {
     // Verification URL base
     private String verifyUrlBase = "https://reg.pra.punjab.gov.pk/IMSFiscalReport/SearchPOSInvoice_Report.aspx?PRAInvNo=";
 
+    // Cloud client resilience
+    private Duration connectTimeout = Duration.ofSeconds(3);
+    private Duration minReadTimeout = Duration.ofSeconds(2);
+    private Duration maxReadTimeout = Duration.ofSeconds(30);
+    private int maxConcurrentCalls = 4;
+    private float circuitFailureRateThreshold = 50;
+    private Duration circuitSlowCallThreshold = Duration.ofSeconds(5);
+    private Duration circuitOpenDuration = Duration.ofSeconds(30);
+
+    // Batch submission (backlog draining); keep concurrency below max-concurrent-calls
+    // so live dispatch still gets a bulkhead permit
+    private int batchConcurrency = 3;
+    private int batchRatePerSecond = 10;
+
+    // Request audit log
+    private double auditSampleRate = 0.1;
+    private int auditMaxBytes = 4096;
+
     // Getters and setters
     public String getEnvironment() {
         return environment;
@@ -111,6 +131,94 @@ public class PraProperties {
         this.verifyUrlBase = verifyUrlBase;
     }
 
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getMinReadTimeout() {
+        return minReadTimeout;
+    }
+
+    public void setMinReadTimeout(Duration minReadTimeout) {
+        this.minReadTimeout = minReadTimeout;
+    }
+
+    public Duration getMaxReadTimeout() {
+        return maxReadTimeout;
+    }
+
+    public void setMaxReadTimeout(Duration maxReadTimeout) {
+        this.maxReadTimeout = maxReadTimeout;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public float getCircuitFailureRateThreshold() {
+        return circuitFailureRateThreshold;
+    }
+
+    public void setCircuitFailureRateThreshold(float circuitFailureRateThreshold) {
+        this.circuitFailureRateThreshold = circuitFailureRateThreshold;
+    }
+
+    public Duration getCircuitSlowCallThreshold() {
+        return circuitSlowCallThreshold;
+    }
+
+    public void setCircuitSlowCallThreshold(Duration circuitSlowCallThreshold) {
+        this.circuitSlowCallThreshold = circuitSlowCallThreshold;
+    }
+
+    public Duration getCircuitOpenDuration() {
+        return circuitOpenDuration;
+    }
+
+    public void setCircuitOpenDuration(Duration circuitOpenDuration) {
+        this.circuitOpenDuration = circuitOpenDuration;
+    }
+
+    public int getBatchConcurrency() {
+        return batchConcurrency;
+    }
+
+    public void setBatchConcurrency(int batchConcurrency) {
+        this.batchConcurrency = batchConcurrency;
+    }
+
+    public int getBatchRatePerSecond() {
+        return batchRatePerSecond;
+    }
+
+    public void setBatchRatePerSecond(int batchRatePerSecond) {
+        this.batchRatePerSecond = batchRatePerSecond;
+    }
+
+    public double getAuditSampleRate() {
+        return auditSampleRate;
+    }
+
+    public void setAuditSampleRate(double auditSampleRate) {
+        this.auditSampleRate = auditSampleRate;
+    }
+
+    public int getAuditMaxBytes() {
+        return auditMaxBytes;
+    }
+
+    public void setAuditMaxBytes(int auditMaxBytes) {
+        this.auditMaxBytes = auditMaxBytes;
+    }
+
     // Convenience methods
     public String getApiUrl() {
         return "production".equalsIgnoreCase(environment) ? productionUrl : sandboxUrl;
@@ -0,0 +1,12 @@
+package com.example.pos.pra.dto;
+
+import java.time.Instant;
+
+public record PraBacklog(
+    long depth,
+    Instant oldestQueuedAt,
+    long oldestAgeSeconds,
+    int oldestAttempts,
+    String lastError,
+    String circuitState
+) {}
@@ -0,0 +1,10 @@
+package com.example.pos.pra.dto;
+
+public record PraBatchItemResult(
+    String usin,
+    PraFiscalizationResult result
+) {
+    public static PraBatchItemResult failed(String usin, String message) {
+        return new PraBatchItemResult(usin, new PraFiscalizationResult(false, null, null, null, message));
+    }
+}
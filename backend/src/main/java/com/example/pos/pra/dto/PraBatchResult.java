@@ -0,0 +1,16 @@
+package com.example.pos.pra.dto;
+
+import java.util.List;
+
+public record PraBatchResult(
+    int submitted,
+    int succeeded,
+    int failed,
+    long elapsedMillis,
+    List<PraBatchItemResult> results
+) {
+    public static PraBatchResult of(List<PraBatchItemResult> results, long elapsedMillis) {
+        int succeeded = (int) results.stream().filter(item -> item.result().success()).count();
+        return new PraBatchResult(results.size(), succeeded, results.size() - succeeded, elapsedMillis, results);
+    }
+}
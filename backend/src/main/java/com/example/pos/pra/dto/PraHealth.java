@@ -2,5 +2,6 @@ package com.example.pos.pra.dto;
 
 public record PraHealth(
     String status,
-    String details
+    String details,
+    String circuitState
 ) {}
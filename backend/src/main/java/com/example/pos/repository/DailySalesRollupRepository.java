@@ -0,0 +1,27 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.DailySalesRollup;
+import com.example.pos.entity.DailySalesRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, DailySalesRollupId> {
+    List<DailySalesRollup> findByIdBusinessDate(String businessDate);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO daily_sales_rollup (business_date, payment_mode, order_count, total_sales_minor)
+        VALUES (:businessDate, :paymentMode, :orderCount, :totalSalesMinor)
+        ON CONFLICT (business_date, payment_mode) DO UPDATE SET
+            order_count = order_count + excluded.order_count,
+            total_sales_minor = total_sales_minor + excluded.total_sales_minor
+        """, nativeQuery = true)
+    void increment(@Param("businessDate") String businessDate,
+                   @Param("paymentMode") String paymentMode,
+                   @Param("orderCount") long orderCount,
+                   @Param("totalSalesMinor") long totalSalesMinor);
+}
@@ -0,0 +1,24 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.FiscalizationOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface FiscalizationOutboxRepository extends JpaRepository<FiscalizationOutboxEntry, UUID> {
+    List<FiscalizationOutboxEntry> findByNextAttemptAtLessThanEqualOrderByCreatedAtAsc(Instant now, Pageable pageable);
+
+    Optional<FiscalizationOutboxEntry> findFirstByOrderByCreatedAtAsc();
+
+    /** Moves every entry due before {@code until} to {@code until}, keeping their order. */
+    @Modifying
+    @Query("UPDATE FiscalizationOutboxEntry e SET e.nextAttemptAt = :until WHERE e.nextAttemptAt < :until")
+    int deferAllUntil(@Param("until") Instant until);
+}
@@ -0,0 +1,62 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.InvoiceSequence;
+import com.example.pos.entity.InvoiceSequenceId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface InvoiceSequenceRepository extends JpaRepository<InvoiceSequence, InvoiceSequenceId> {
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO invoice_sequences (terminal_id, business_date, high_water)
+        VALUES (:terminalId, :businessDate, :blockSize)
+        ON CONFLICT (terminal_id, business_date) DO UPDATE SET
+            high_water = high_water + excluded.high_water,
+            released = 0
+        """, nativeQuery = true)
+    void reserve(@Param("terminalId") String terminalId,
+                 @Param("businessDate") String businessDate,
+                 @Param("blockSize") long blockSize);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO invoice_sequences (terminal_id, business_date, high_water)
+        VALUES (:terminalId, :businessDate, :highWater)
+        ON CONFLICT (terminal_id, business_date) DO UPDATE SET
+            high_water = excluded.high_water,
+            released = 0
+        """, nativeQuery = true)
+    void resetTo(@Param("terminalId") String terminalId,
+                 @Param("businessDate") String businessDate,
+                 @Param("highWater") long highWater);
+
+    @Modifying
+    @Query(value = """
+        UPDATE invoice_sequences SET high_water = :issued, released = 1
+        WHERE terminal_id = :terminalId AND business_date = :businessDate AND high_water = :reserved
+        """, nativeQuery = true)
+    int release(@Param("terminalId") String terminalId,
+                @Param("businessDate") String businessDate,
+                @Param("reserved") long reserved,
+                @Param("issued") long issued);
+
+    @Query(value = """
+        SELECT high_water FROM invoice_sequences
+        WHERE terminal_id = :terminalId AND business_date = :businessDate
+        """, nativeQuery = true)
+    long findHighWater(@Param("terminalId") String terminalId,
+                       @Param("businessDate") String businessDate);
+
+    /** The last issued number, if the previous run released its block on shutdown. */
+    @Query(value = """
+        SELECT high_water FROM invoice_sequences
+        WHERE terminal_id = :terminalId AND business_date = :businessDate AND released = 1
+        """, nativeQuery = true)
+    Optional<Long> findReleasedHighWater(@Param("terminalId") String terminalId,
+                                         @Param("businessDate") String businessDate);
+}
@@ -1,11 +1,48 @@
 package com.example.pos.repository;
 
 import com.example.pos.entity.OrderItem;
+import com.example.pos.repository.SalesProjections.CategoryAggregate;
+import com.example.pos.repository.SalesProjections.ItemAggregate;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
     Optional<OrderItem> findByOrderIdAndItemId(UUID orderId, UUID itemId);
+
+    @Query(value = """
+        SELECT i.category AS category,
+               SUM(oi.quantity) AS quantity,
+               COALESCE(SUM(oi.line_total), 0) AS sales
+        FROM order_items oi
+        JOIN orders o ON o.id = oi.order_id
+        JOIN items i ON i.id = oi.item_id
+        WHERE o.status = 'PAID' AND o.created_at >= :startMillis AND o.created_at < :endMillis
+        GROUP BY i.category
+        ORDER BY sales DESC
+        """, nativeQuery = true)
+    List<CategoryAggregate> sumPaidSalesByCategory(@Param("startMillis") long startMillis,
+                                                   @Param("endMillis") long endMillis);
+
+    @Query(value = """
+        SELECT i.item_code AS itemCode,
+               i.name AS itemName,
+               i.category AS category,
+               SUM(oi.quantity) AS quantity,
+               COALESCE(SUM(oi.line_total), 0) AS sales
+        FROM order_items oi
+        JOIN orders o ON o.id = oi.order_id
+        JOIN items i ON i.id = oi.item_id
+        WHERE o.status = 'PAID' AND o.created_at >= :startMillis AND o.created_at < :endMillis
+        GROUP BY oi.item_id
+        ORDER BY sales DESC, quantity DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<ItemAggregate> topPaidItems(@Param("startMillis") long startMillis,
+                                     @Param("endMillis") long endMillis,
+                                     @Param("limit") int limit);
 }
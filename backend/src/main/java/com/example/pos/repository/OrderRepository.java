@@ -2,14 +2,113 @@ package com.example.pos.repository;
 
 import com.example.pos.entity.Order;
 import com.example.pos.entity.OrderStatus;
+import com.example.pos.repository.SalesProjections.PaymentModeAggregate;
+import com.example.pos.repository.SalesProjections.SalesAggregate;
+import com.example.pos.repository.SalesProjections.SlotAggregate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
     List<Order> findByStatusAndCreatedAtBetween(OrderStatus status, Instant start, Instant end);
     List<Order> findAllByOrderByCreatedAtDesc();
     List<Order> findByStatusOrderByCreatedAtDesc(OrderStatus status);
+
+    @EntityGraph(attributePaths = {"items", "items.item"})
+    List<Order> findAllWithItemsByOrderByCreatedAtDesc();
+
+    @EntityGraph(attributePaths = {"items", "items.item"})
+    List<Order> findWithItemsByStatusOrderByCreatedAtDesc(OrderStatus status);
+
+    @EntityGraph(attributePaths = {"items", "items.item"})
+    Optional<Order> findWithItemsById(UUID id);
+
+    @EntityGraph(attributePaths = {"items", "items.item"})
+    List<Order> findWithItemsByIdIn(Collection<UUID> ids);
+
+    /**
+     * One keyset page of order ids, newest first. Walks idx_orders_status_created
+     * when a status is given.
+     */
+    @Query("""
+        select o.id from Order o
+        where (:status is null or o.status = :status)
+          and o.createdAt >= :from and o.createdAt < :to
+          and (o.createdAt < :afterCreatedAt or (o.createdAt = :afterCreatedAt and o.id < :afterId))
+        order by o.createdAt desc, o.id desc
+        """)
+    List<UUID> findPageIds(@Param("status") OrderStatus status,
+                           @Param("from") Instant from,
+                           @Param("to") Instant to,
+                           @Param("afterCreatedAt") Instant afterCreatedAt,
+                           @Param("afterId") UUID afterId,
+                           Pageable pageable);
+    List<PaidOrderSummary> findSummariesByStatus(OrderStatus status);
+    boolean existsByStatus(OrderStatus status);
+
+    @Query(value = """
+        SELECT NULL AS period,
+               COUNT(*) AS orderCount,
+               COALESCE(SUM(o.subtotal), 0) AS subtotal,
+               COALESCE(SUM(o.discount), 0) AS discount,
+               COALESCE(SUM(o.tax), 0) AS tax,
+               COALESCE(SUM(o.total), 0) AS total
+        FROM orders o
+        WHERE o.status = 'PAID' AND o.created_at >= :startMillis AND o.created_at < :endMillis
+        """, nativeQuery = true)
+    SalesAggregate sumPaidSales(@Param("startMillis") long startMillis,
+                                @Param("endMillis") long endMillis);
+
+    /**
+     * Paid sales per quarter hour of epoch time, {@code slot = created_at / 900000}.
+     * Every zone offset in use is a whole number of quarter hours, so the caller
+     * can map each slot to its local period exactly, DST changes included.
+     */
+    @Query(value = """
+        SELECT o.created_at / 900000 AS slot,
+               COUNT(*) AS orderCount,
+               COALESCE(SUM(o.subtotal), 0) AS subtotal,
+               COALESCE(SUM(o.discount), 0) AS discount,
+               COALESCE(SUM(o.tax), 0) AS tax,
+               COALESCE(SUM(o.total), 0) AS total
+        FROM orders o
+        WHERE o.status = 'PAID' AND o.created_at >= :startMillis AND o.created_at < :endMillis
+        GROUP BY slot
+        ORDER BY slot
+        """, nativeQuery = true)
+    List<SlotAggregate> sumPaidSalesBySlot(@Param("startMillis") long startMillis,
+                                           @Param("endMillis") long endMillis);
+
+    @Query(value = """
+        SELECT COALESCE(o.payment_mode, 'CASH') AS paymentMode,
+               COUNT(*) AS orderCount,
+               COALESCE(SUM(o.tax), 0) AS tax,
+               COALESCE(SUM(o.total), 0) AS total
+        FROM orders o
+        WHERE o.status = 'PAID' AND o.created_at >= :startMillis AND o.created_at < :endMillis
+        GROUP BY paymentMode
+        ORDER BY paymentMode
+        """, nativeQuery = true)
+    List<PaymentModeAggregate> sumPaidSalesByPaymentMode(@Param("startMillis") long startMillis,
+                                                         @Param("endMillis") long endMillis);
+
+    /**
+     * Highest invoice number starting with {@code prefix}. Longer numbers sort
+     * first, so a sequence that outgrew its zero padding still wins.
+     */
+    @Query(value = """
+        SELECT o.invoice_number FROM orders o
+        WHERE o.invoice_number LIKE :prefix || '%'
+        ORDER BY length(o.invoice_number) DESC, o.invoice_number DESC
+        LIMIT 1
+        """, nativeQuery = true)
+    Optional<String> findLastInvoiceNumber(@Param("prefix") String prefix);
 }
@@ -0,0 +1,12 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.PaymentMode;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public interface PaidOrderSummary {
+    Instant getCreatedAt();
+    PaymentMode getPaymentMode();
+    BigDecimal getTotal();
+}
@@ -0,0 +1,50 @@
+package com.example.pos.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Row shapes returned by the GROUP BY report queries. Money columns come back
+ * from SQLite as REAL or INTEGER sums and are rounded by the caller.
+ */
+public final class SalesProjections {
+    private SalesProjections() {
+    }
+
+    public interface SalesAggregate {
+        long getOrderCount();
+        BigDecimal getSubtotal();
+        BigDecimal getDiscount();
+        BigDecimal getTax();
+        BigDecimal getTotal();
+    }
+
+    public interface SlotAggregate {
+        long getSlot();
+        long getOrderCount();
+        BigDecimal getSubtotal();
+        BigDecimal getDiscount();
+        BigDecimal getTax();
+        BigDecimal getTotal();
+    }
+
+    public interface PaymentModeAggregate {
+        String getPaymentMode();
+        long getOrderCount();
+        BigDecimal getTax();
+        BigDecimal getTotal();
+    }
+
+    public interface CategoryAggregate {
+        String getCategory();
+        long getQuantity();
+        BigDecimal getSales();
+    }
+
+    public interface ItemAggregate {
+        String getItemCode();
+        String getItemName();
+        String getCategory();
+        long getQuantity();
+        BigDecimal getSales();
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.pos.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Append-only log of cart line deltas that are not in SQLite yet. Each tap
+ * appends fixed-size delta records; a flush first records its key, which the
+ * order row stores in the same transaction, and afterwards appends a marker
+ * that cancels the order's earlier records. Whatever is left unmarked after a
+ * crash is replayed on the next start under the recorded key, so a flush that
+ * committed just before the crash is recognised and not applied twice. The
+ * file is truncated whenever no order has unflushed deltas, so it stays a few
+ * kilobytes.
+ *
+ * <p>Without {@code sync} a record survives a crash of the backend but not of
+ * the machine, the same trade SQLite makes with {@code synchronous=NORMAL}.
+ */
+final class CartJournal implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(CartJournal.class);
+    private static final byte DELTA = 1;
+    private static final byte FLUSHED = 2;
+    private static final byte FLUSH_STARTED = 3;
+    static final int RECORD_BYTES = 1 + 16 + 16 + 4;
+
+    private final Path path;
+    private final boolean sync;
+    private final FileChannel channel;
+    private final Set<UUID> unflushed = new HashSet<>();
+    private final Map<UUID, UUID> startedFlushes = new HashMap<>();
+
+    CartJournal(Path path, boolean sync) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.path = path;
+        this.sync = sync;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    }
+
+    /**
+     * The deltas in the file that no flush marker covers, per order and item.
+     * A torn record at the end, left by a crash mid-append, is cut off. Mark
+     * each order flushed once it is replayed.
+     */
+    synchronized Map<UUID, Map<UUID, Integer>> pending() throws IOException {
+        Map<UUID, Map<UUID, Integer>> pending = new LinkedHashMap<>();
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 256);
+        long position = 0;
+        long size = channel.size();
+        while (position + RECORD_BYTES <= size) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (size - position) / RECORD_BYTES * RECORD_BYTES));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_BYTES) {
+                byte type = buffer.get();
+                UUID orderId = new UUID(buffer.getLong(), buffer.getLong());
+                UUID itemId = new UUID(buffer.getLong(), buffer.getLong());
+                int delta = buffer.getInt();
+                if (type == DELTA) {
+                    pending.computeIfAbsent(orderId, key -> new LinkedHashMap<>()).merge(itemId, delta, Integer::sum);
+                } else if (type == FLUSHED) {
+                    pending.remove(orderId);
+                    startedFlushes.remove(orderId);
+                } else if (type == FLUSH_STARTED) {
+                    // The flush key sits where delta records keep the item id
+                    startedFlushes.put(orderId, itemId);
+                } else {
+                    throw new IOException("Corrupt cart journal record at offset " + position + " in " + path);
+                }
+                position += RECORD_BYTES;
+            }
+        }
+        if (position < size) {
+            logger.warn("Dropping {} bytes of a torn record at the end of {}", size - position, path);
+            channel.truncate(position);
+        }
+        pending.values().forEach(deltas -> deltas.values().removeIf(delta -> delta == 0));
+        pending.values().removeIf(Map::isEmpty);
+        startedFlushes.keySet().retainAll(pending.keySet());
+        unflushed.addAll(pending.keySet());
+        return pending;
+    }
+
+    /** Records one edit of an order; all its deltas go out in a single write. */
+    synchronized void append(UUID orderId, Map<UUID, Integer> deltas) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * deltas.size());
+        deltas.forEach((itemId, delta) -> put(buffer, DELTA, orderId, itemId, delta));
+        write(buffer);
+        unflushed.add(orderId);
+    }
+
+    /**
+     * Records that a flush of the order's deltas under {@code flushKey} is about
+     * to be committed.
+     */
+    synchronized void flushStarted(UUID orderId, UUID flushKey) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+        put(buffer, FLUSH_STARTED, orderId, flushKey, 0);
+        write(buffer);
+        unflushed.add(orderId);
+        startedFlushes.put(orderId, flushKey);
+    }
+
+    /**
+     * The key of the order's last flush that started but was never marked, as
+     * read by {@link #pending()}; null when there is none.
+     */
+    synchronized UUID startedFlush(UUID orderId) {
+        return startedFlushes.get(orderId);
+    }
+
+    /** Cancels the order's earlier records once they are in SQLite or dropped. */
+    synchronized void markFlushed(UUID orderId) {
+        startedFlushes.remove(orderId);
+        if (!unflushed.remove(orderId)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+        put(buffer, FLUSHED, orderId, new UUID(0, 0), 0);
+        write(buffer);
+        if (unflushed.isEmpty()) {
+            truncate();
+        }
+    }
+
+    /** Empties the file; only safe when every recorded delta is in SQLite. */
+    synchronized void truncate() {
+        try {
+            channel.truncate(0);
+            if (sync) {
+                channel.force(false);
+            }
+            unflushed.clear();
+            startedFlushes.clear();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not truncate cart journal " + path, ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void write(ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            long end = channel.size();
+            while (buffer.hasRemaining()) {
+                end += channel.write(buffer, end);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write cart journal " + path, ex);
+        }
+    }
+
+    private static void put(ByteBuffer buffer, byte type, UUID orderId, UUID itemId, int delta) {
+        buffer.put(type)
+            .putLong(orderId.getMostSignificantBits())
+            .putLong(orderId.getLeastSignificantBits())
+            .putLong(itemId.getMostSignificantBits())
+            .putLong(itemId.getLeastSignificantBits())
+            .putInt(delta);
+    }
+}
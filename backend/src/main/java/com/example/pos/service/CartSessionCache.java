@@ -0,0 +1,446 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.ItemResponse;
+import com.example.pos.dto.OrderItemChange;
+import com.example.pos.dto.OrderItemResponse;
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.entity.OrderStatus;
+import com.example.pos.entity.PaymentMode;
+import com.example.pos.exception.ConflictException;
+import com.example.pos.money.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind cache for the lines of DRAFT orders. A tap on the POS grid edits
+ * an in-memory cart and adjusts its running subtotal by the changed line, so no
+ * order graph is loaded or saved per tap. Each edit is journaled first (see
+ * {@link CartJournal}) and its net per-item deltas are written to SQLite
+ * through {@link OrderItemDeltas} every {@code app.cart.flush-interval-ms},
+ * before checkout and on shutdown. Deltas commute, so a flush also merges
+ * cleanly with edits another backend made to the same order.
+ *
+ * <p>Anything that reads an order outside the line endpoints must
+ * {@link #evict} it first so SQLite is current, and anything that changes it
+ * must run inside {@link #whileClosing}; order lists can lag an open cart by
+ * one flush interval.
+ */
+@Component
+public class CartSessionCache implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(CartSessionCache.class);
+
+    private final OrderService orderService;
+    private final OrderItemDeltas itemDeltas;
+    private final MenuCatalogCache catalogCache;
+    private final OrderTaxes orderTaxes;
+    private final MeterRegistry meterRegistry;
+    private final CartJournal journal;
+    private final long idleTimeoutNanos;
+    private final ConcurrentHashMap<UUID, Session> sessions = new ConcurrentHashMap<>();
+    // Orders being checked out, cancelled or updated, with how many such calls are running
+    private final ConcurrentHashMap<UUID, Integer> closing = new ConcurrentHashMap<>();
+
+    public CartSessionCache(OrderService orderService,
+                            OrderItemDeltas itemDeltas,
+                            MenuCatalogCache catalogCache,
+                            OrderTaxes orderTaxes,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.cart.journal-path:./data/cart.journal}") String journalPath,
+                            @Value("${app.cart.journal-sync:false}") boolean journalSync,
+                            @Value("${app.cart.idle-timeout:PT10M}") Duration idleTimeout) throws IOException {
+        this.orderService = orderService;
+        this.itemDeltas = itemDeltas;
+        this.catalogCache = catalogCache;
+        this.orderTaxes = orderTaxes;
+        this.meterRegistry = meterRegistry;
+        this.journal = new CartJournal(Path.of(journalPath), journalSync);
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        meterRegistry.gaugeMapSize("pos.cart.sessions", List.of(), sessions);
+    }
+
+    /**
+     * Replays deltas a crash left in the journal, before the web server takes
+     * requests. A flush that had started is replayed under its own key, so it is
+     * skipped if it committed before the crash. An order that can no longer
+     * take the deltas (paid, cancelled, item deleted) is skipped with a warning.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<UUID, Map<UUID, Integer>> pending;
+        try {
+            pending = journal.pending();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read cart journal", ex);
+        }
+        pending.forEach((orderId, deltas) -> {
+            UUID flushKey = journal.startedFlush(orderId);
+            if (flushKey == null) {
+                flushKey = UUID.randomUUID();
+                journal.flushStarted(orderId, flushKey);
+            }
+            try {
+                itemDeltas.applyAll(orderId, deltas, flushKey);
+                logger.info("Recovered {} unflushed cart lines of order {}", deltas.size(), orderId);
+            } catch (IllegalArgumentException | EntityNotFoundException ex) {
+                logger.warn("Dropping unflushed cart lines {} of order {}: {}", deltas, orderId, ex.getMessage());
+            }
+            journal.markFlushed(orderId);
+        });
+        journal.truncate();
+    }
+
+    public OrderResponse setQuantity(UUID orderId, UUID itemId, int quantity) {
+        return edit(orderId, cart -> Map.of(itemId, quantity - cart.quantity(itemId)));
+    }
+
+    public OrderResponse adjust(UUID orderId, UUID itemId, int delta) {
+        if (delta == 0) {
+            throw new IllegalArgumentException("delta must not be 0");
+        }
+        return edit(orderId, cart -> Map.of(itemId, Math.max(delta, -cart.quantity(itemId))));
+    }
+
+    public OrderResponse remove(UUID orderId, UUID itemId) {
+        return edit(orderId, cart -> {
+            int quantity = cart.quantity(itemId);
+            if (quantity == 0) {
+                throw new EntityNotFoundException("Order item not found");
+            }
+            return Map.of(itemId, -quantity);
+        });
+    }
+
+    /**
+     * Absolute quantities as in {@link OrderService#applyItemChanges}; a
+     * quantity of 0 removes the line.
+     */
+    public OrderResponse applyChanges(UUID orderId, List<OrderItemChange> changes) {
+        return edit(orderId, cart -> {
+            Map<UUID, Integer> quantities = new LinkedHashMap<>();
+            for (OrderItemChange change : changes) {
+                quantities.put(change.itemId(), change.quantity());
+            }
+            Map<UUID, Integer> deltas = new LinkedHashMap<>();
+            quantities.forEach((itemId, quantity) -> deltas.put(itemId, quantity - cart.quantity(itemId)));
+            return deltas;
+        });
+    }
+
+    /** The order as its open cart has it, if one is cached. */
+    public Optional<OrderResponse> find(UUID orderId) {
+        Session session = sessions.get(orderId);
+        if (session == null) {
+            return Optional.empty();
+        }
+        synchronized (session) {
+            return session.closed ? Optional.empty() : Optional.of(view(session));
+        }
+    }
+
+    /**
+     * Writes the order's pending lines to SQLite and drops its cart. A cart
+     * that cannot be written any more is dropped and the error rethrown.
+     */
+    public void evict(UUID orderId) {
+        Session session = sessions.get(orderId);
+        if (session == null) {
+            return;
+        }
+        synchronized (session) {
+            if (!session.closed) {
+                flush(session, "evict");
+                drop(session);
+            }
+        }
+    }
+
+    /**
+     * Writes the order's cart to SQLite and runs {@code work} while line edits
+     * on the order are rejected with a conflict, so a tap cannot open a new cart
+     * on an order whose checkout, cancel or update has not committed yet.
+     */
+    public <T> T whileClosing(UUID orderId, Supplier<T> work) {
+        closing.merge(orderId, 1, Integer::sum);
+        try {
+            evict(orderId);
+            return work.get();
+        } finally {
+            closing.computeIfPresent(orderId, (id, calls) -> calls == 1 ? null : calls - 1);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:1000}")
+    public void flushAll() {
+        long now = System.nanoTime();
+        for (Session session : sessions.values()) {
+            synchronized (session) {
+                if (session.closed) {
+                    continue;
+                }
+                try {
+                    flush(session, "schedule");
+                } catch (RuntimeException ex) {
+                    logger.warn("Could not flush cart of order {}: {}", session.orderId, ex.getMessage());
+                    continue;
+                }
+                if (now - session.touchedAt > idleTimeoutNanos) {
+                    drop(session);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (Session session : sessions.values()) {
+            synchronized (session) {
+                try {
+                    flush(session, "shutdown");
+                } catch (RuntimeException ex) {
+                    logger.warn("Could not flush cart of order {} on shutdown, left in the journal: {}",
+                        session.orderId, ex.getMessage());
+                }
+            }
+        }
+        journal.close();
+    }
+
+    private OrderResponse edit(UUID orderId, Function<Session, Map<UUID, Integer>> change) {
+        while (true) {
+            rejectIfClosing(orderId);
+            Session session = sessions.get(orderId);
+            if (session == null) {
+                // Loaded outside the map so the read never runs under a map bin lock
+                Session loaded = load(orderId);
+                session = sessions.putIfAbsent(orderId, loaded);
+                if (session == null) {
+                    session = loaded;
+                }
+            }
+            synchronized (session) {
+                if (session.closed) {
+                    continue;
+                }
+                if (closing.containsKey(orderId)) {
+                    // A cart loaded after the closing call evicted must not outlive it
+                    if (session.pending.isEmpty()) {
+                        drop(session);
+                    }
+                    rejectIfClosing(orderId);
+                }
+                Map<UUID, Integer> deltas = new LinkedHashMap<>(change.apply(session));
+                deltas.values().removeIf(delta -> delta == 0);
+                if (!deltas.isEmpty()) {
+                    Map<UUID, ItemResponse> items = resolve(session, deltas);
+                    journal.append(orderId, deltas);
+                    deltas.forEach((itemId, delta) -> session.apply(itemId, delta, items.get(itemId)));
+                }
+                session.touchedAt = System.nanoTime();
+                return view(session);
+            }
+        }
+    }
+
+    private void rejectIfClosing(UUID orderId) {
+        if (closing.containsKey(orderId)) {
+            throw new ConflictException("Order is being checked out or updated; retry the edit");
+        }
+    }
+
+    private Session load(UUID orderId) {
+        OrderResponse order = orderService.getOrder(orderId);
+        if (order.status() != OrderStatus.DRAFT) {
+            throw new IllegalArgumentException("Only DRAFT orders can be modified");
+        }
+        Session session = new Session(orderId);
+        session.rebase(order);
+        return session;
+    }
+
+    // Lines that stay on the order take the current menu price, as in OrderService
+    private Map<UUID, ItemResponse> resolve(Session session, Map<UUID, Integer> deltas) {
+        MenuCatalog catalog = catalogCache.current();
+        Map<UUID, ItemResponse> items = new HashMap<>();
+        deltas.forEach((itemId, delta) -> {
+            if (session.quantity(itemId) + delta > 0) {
+                items.put(itemId, catalog.findById(itemId)
+                    .orElseThrow(() -> new EntityNotFoundException("Item not found")));
+            }
+        });
+        return items;
+    }
+
+    private void flush(Session session, String trigger) {
+        if (session.pending.isEmpty()) {
+            // Edits that cancelled out still left records behind
+            journal.markFlushed(session.orderId);
+            return;
+        }
+        Map<UUID, Integer> deltas = new LinkedHashMap<>(session.pending);
+        UUID flushKey = UUID.randomUUID();
+        journal.flushStarted(session.orderId, flushKey);
+        try {
+            session.rebase(itemDeltas.applyAll(session.orderId, deltas, flushKey));
+            journal.markFlushed(session.orderId);
+            meterRegistry.counter("pos.cart.flushes", "trigger", trigger, "outcome", "success").increment();
+        } catch (IllegalArgumentException | EntityNotFoundException ex) {
+            // The order is no longer DRAFT or an item is gone: the cart can never be written
+            logger.warn("Dropping cart lines {} of order {}: {}", deltas, session.orderId, ex.getMessage());
+            session.pending.clear();
+            drop(session);
+            journal.markFlushed(session.orderId);
+            meterRegistry.counter("pos.cart.flushes", "trigger", trigger, "outcome", "dropped").increment();
+            throw ex;
+        } catch (RuntimeException ex) {
+            meterRegistry.counter("pos.cart.flushes", "trigger", trigger, "outcome", "error").increment();
+            throw ex;
+        }
+    }
+
+    private void drop(Session session) {
+        session.closed = true;
+        sessions.remove(session.orderId, session);
+    }
+
+    private OrderResponse view(Session session) {
+        OrderResponse header = session.header;
+        if (session.pending.isEmpty()) {
+            return header;
+        }
+        PaymentMode mode = header.paymentMode() == null ? PaymentMode.CASH : PaymentMode.valueOf(header.paymentMode());
+        Money subtotal = Money.ofPaisa(session.subtotalPaisa);
+        Money discount = Money.of(header.discount());
+        Money discounted = subtotal.minus(discount).max(Money.ZERO);
+        List<OrderItemResponse> items = new ArrayList<>(session.lines.size());
+        List<OrderTaxes.Line> taxLines = new ArrayList<>(session.lines.size());
+        for (Line line : session.lines.values()) {
+            items.add(new OrderItemResponse(line.lineId, line.itemId, line.itemName, line.quantity,
+                line.unitPrice, Money.ofPaisa(line.totalPaisa).toBigDecimal()));
+            taxLines.add(new OrderTaxes.Line(line.itemId, Money.ofPaisa(line.totalPaisa)));
+        }
+        OrderTaxes.Assessment assessment =
+            orderTaxes.assess(mode, header.createdAt(), subtotal, discount, discounted, taxLines);
+        BigDecimal tax = assessment.tax().toBigDecimal();
+        return new OrderResponse(
+            header.id(),
+            header.invoiceNumber(),
+            header.fiscalInvoiceNumber(),
+            header.fiscalQrText(),
+            header.fiscalVerificationUrl(),
+            header.fiscalStatus(),
+            subtotal.toBigDecimal(),
+            tax,
+            discounted.plus(assessment.tax()).toBigDecimal(),
+            header.status(),
+            mode.name(),
+            assessment.gstRate(),
+            tax,
+            header.customerName(),
+            header.customerPhone(),
+            header.customerCnic(),
+            header.customerPntn(),
+            header.customerTaxId(),
+            header.notes(),
+            header.discount(),
+            header.createdAt(),
+            items
+        );
+    }
+
+    /** One open cart; guarded by its own monitor. */
+    private static final class Session {
+        private final UUID orderId;
+        private final Map<UUID, Line> lines = new LinkedHashMap<>();
+        // Net change per item since the last flush, as written to the journal
+        private final Map<UUID, Integer> pending = new LinkedHashMap<>();
+        private OrderResponse header;
+        private long subtotalPaisa;
+        private long touchedAt = System.nanoTime();
+        private boolean closed;
+
+        private Session(UUID orderId) {
+            this.orderId = orderId;
+        }
+
+        int quantity(UUID itemId) {
+            Line line = lines.get(itemId);
+            return line == null ? 0 : line.quantity;
+        }
+
+        void apply(UUID itemId, int delta, ItemResponse item) {
+            pending.merge(itemId, delta, Integer::sum);
+            pending.remove(itemId, 0);
+            Line line = lines.get(itemId);
+            int quantity = (line == null ? 0 : line.quantity) + delta;
+            if (quantity <= 0) {
+                if (line != null) {
+                    subtotalPaisa -= line.totalPaisa;
+                    lines.remove(itemId);
+                }
+                return;
+            }
+            if (line == null) {
+                line = new Line(null, itemId, item.name());
+                lines.put(itemId, line);
+            }
+            long totalPaisa = Money.of(item.price()).times(quantity).paisa();
+            subtotalPaisa += totalPaisa - line.totalPaisa;
+            line.quantity = quantity;
+            line.unitPrice = item.price();
+            line.totalPaisa = totalPaisa;
+        }
+
+        /** Resets the cart to what SQLite holds after a load or flush. */
+        void rebase(OrderResponse order) {
+            header = order;
+            lines.clear();
+            pending.clear();
+            for (OrderItemResponse item : order.items()) {
+                Line line = new Line(item.id(), item.itemId(), item.itemName());
+                line.quantity = item.quantity();
+                line.unitPrice = item.unitPrice();
+                line.totalPaisa = Money.of(item.lineTotal()).paisa();
+                lines.put(item.itemId(), line);
+            }
+            subtotalPaisa = Money.of(order.subtotal()).paisa();
+        }
+    }
+
+    private static final class Line {
+        private final UUID lineId;
+        private final UUID itemId;
+        private final String itemName;
+        private int quantity;
+        private BigDecimal unitPrice;
+        private long totalPaisa;
+
+        private Line(UUID lineId, UUID itemId, String itemName) {
+            this.lineId = lineId;
+            this.itemId = itemId;
+            this.itemName = itemName;
+        }
+    }
+}
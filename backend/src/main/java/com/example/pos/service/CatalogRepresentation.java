@@ -0,0 +1,66 @@
+package com.example.pos.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialized JSON body of one catalog listing, plus its gzip encoding.
+ * Each coding has its own strong ETag, since the two bodies differ byte for
+ * byte. Built once per catalog version so conditional and full GETs of
+ * {@code /api/items} never serialize on the request path.
+ */
+public final class CatalogRepresentation {
+    private final String etag;
+    private final String gzipEtag;
+    private final long version;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private CatalogRepresentation(String etag, long version, byte[] json, byte[] gzip) {
+        this.etag = etag;
+        this.gzipEtag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+        this.version = version;
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    public static CatalogRepresentation of(String variant, long version, byte[] json) {
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        String etag = "\"" + variant + "-" + version + "-" + Long.toHexString(crc.getValue()) + "\"";
+        return new CatalogRepresentation(etag, version, json, gzip(json));
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    public String gzipEtag() {
+        return gzipEtag;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public byte[] json() {
+        return json;
+    }
+
+    public byte[] gzip() {
+        return gzip;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.exception.ConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lets only one checkout of a given order run at a time. The lock is held
+ * around the checkout transaction, so a terminal that retries while its first
+ * attempt is still running waits for that attempt to commit and then, with the
+ * same Idempotency-Key, gets the stored result back. Locks are striped by order
+ * id; unrelated orders rarely share a stripe. The order's open cart is flushed
+ * under the lock and taps are rejected until the checkout commits, so checkout
+ * sees every line the terminal added and none are lost after it.
+ */
+@Component
+public class CheckoutGuard {
+    private static final int STRIPES = 64;
+
+    private final OrderService orderService;
+    private final CartSessionCache cartSessions;
+    private final Duration lockTimeout;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public CheckoutGuard(OrderService orderService,
+                         CartSessionCache cartSessions,
+                         @Value("${app.checkout.lock-timeout:PT15S}") Duration lockTimeout) {
+        this.orderService = orderService;
+        this.cartSessions = cartSessions;
+        this.lockTimeout = lockTimeout;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public OrderResponse checkout(UUID orderId, String idempotencyKey) {
+        ReentrantLock lock = locks[Math.floorMod(orderId.hashCode(), STRIPES)];
+        try {
+            if (!lock.tryLock(lockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ConflictException("Checkout of this order is already in progress");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Checkout of this order is already in progress");
+        }
+        try {
+            return cartSessions.whileClosing(orderId, () -> orderService.checkout(orderId, idempotencyKey));
+        } finally {
+            lock.unlock();
+        }
+    }
+}
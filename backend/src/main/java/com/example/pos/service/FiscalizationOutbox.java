@@ -0,0 +1,331 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.OrderEventType;
+import com.example.pos.entity.FiscalStatus;
+import com.example.pos.entity.FiscalizationOutboxEntry;
+import com.example.pos.entity.Order;
+import com.example.pos.exception.ConflictException;
+import com.example.pos.pra.PraFiscalizationClient;
+import com.example.pos.pra.PraInvoiceMapper;
+import com.example.pos.pra.PraUnavailableException;
+import com.example.pos.pra.dto.PraBacklog;
+import com.example.pos.pra.dto.PraBatchItemResult;
+import com.example.pos.pra.dto.PraBatchResult;
+import com.example.pos.pra.dto.PraFiscalizationResult;
+import com.example.pos.pra.dto.PraHealth;
+import com.example.pos.pra.dto.PraInvoiceModel;
+import com.example.pos.repository.FiscalizationOutboxRepository;
+import com.example.pos.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Durable queue of PAID orders that still need a PRA fiscal invoice.
+ * Checkout only inserts a row here (with the serialized invoice), so sales
+ * never wait on the uplink; the scheduled dispatcher replays the queue
+ * outside any transaction and writes the fiscal fields back on success.
+ */
+@Service
+public class FiscalizationOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(FiscalizationOutbox.class);
+    private static final int MAX_DRAIN = 1000;
+
+    private final FiscalizationOutboxRepository outboxRepository;
+    private final OrderRepository orderRepository;
+    private final PraFiscalizationClient fiscalizationClient;
+    private final PraInvoiceMapper praInvoiceMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+    private final MeterRegistry meterRegistry;
+    private final RateLimiter replayLimiter;
+    private final ReentrantLock replayLock = new ReentrantLock();
+
+    @Value("${app.fiscalization.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.fiscalization.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.fiscalization.initial-backoff:PT5S}")
+    private Duration initialBackoff;
+
+    @Value("${app.fiscalization.max-backoff:PT10M}")
+    private Duration maxBackoff;
+
+    public FiscalizationOutbox(FiscalizationOutboxRepository outboxRepository,
+                               OrderRepository orderRepository,
+                               @Qualifier("praFiscalizationClient") PraFiscalizationClient fiscalizationClient,
+                               PraInvoiceMapper praInvoiceMapper,
+                               TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper,
+                               ApplicationEventPublisher events,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.fiscalization.replay-rate-per-second:5}") int replayRatePerSecond) {
+        this.outboxRepository = outboxRepository;
+        this.orderRepository = orderRepository;
+        this.fiscalizationClient = fiscalizationClient;
+        this.praInvoiceMapper = praInvoiceMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.events = events;
+        this.meterRegistry = meterRegistry;
+        // Wait up to one refresh period, so a tick never stalls for long on the limiter
+        this.replayLimiter = RateLimiter.of("pra-replay", RateLimiterConfig.custom()
+            .limitForPeriod(replayRatePerSecond)
+            .limitRefreshPeriod(Duration.ofSeconds(1))
+            .timeoutDuration(Duration.ofSeconds(1))
+            .build());
+        Gauge.builder("pos.fiscalization.backlog", outboxRepository, FiscalizationOutboxRepository::count)
+            .description("Paid orders still waiting for a PRA fiscal invoice")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queues a freshly paid order. The PRA invoice is captured now, inside the
+     * checkout transaction, so a later replay sends exactly what was sold. If
+     * it cannot be built yet, the dispatcher maps the order when it sends it.
+     */
+    @Transactional
+    public void enqueue(Order order) {
+        FiscalizationOutboxEntry entry = new FiscalizationOutboxEntry();
+        entry.setOrderId(order.getId());
+        entry.setNextAttemptAt(Instant.now());
+        entry.setPayload(capture(order));
+        outboxRepository.save(entry);
+    }
+
+    @Transactional(readOnly = true)
+    public PraBacklog backlog() {
+        String circuitState = fiscalizationClient.health().circuitState();
+        return outboxRepository.findFirstByOrderByCreatedAtAsc()
+            .map(oldest -> new PraBacklog(
+                outboxRepository.count(),
+                oldest.getCreatedAt(),
+                Duration.between(oldest.getCreatedAt(), Instant.now()).toSeconds(),
+                oldest.getAttempts(),
+                oldest.getLastError(),
+                circuitState))
+            .orElseGet(() -> new PraBacklog(0, null, 0, 0, null, circuitState));
+    }
+
+    /**
+     * Replays due entries oldest first, at most {@code replay-rate-per-second}.
+     * Nothing is sent while PRA reports an open circuit. A connectivity failure
+     * stops the batch and backs off the whole queue together with the failed
+     * entry, so later invoices never overtake it. An invoice PRA rejects,
+     * including with a 4xx, backs off alone and does not hold up the rest.
+     */
+    @Scheduled(fixedDelayString = "${app.fiscalization.poll-interval-ms:2000}")
+    public void dispatchDue() {
+        if (!enabled || !praReachable() || !replayLock.tryLock()) {
+            return;
+        }
+        try {
+            List<FiscalizationOutboxEntry> due = outboxRepository
+                .findByNextAttemptAtLessThanEqualOrderByCreatedAtAsc(Instant.now(), PageRequest.of(0, batchSize));
+            for (FiscalizationOutboxEntry entry : due) {
+                if (!replayLimiter.acquirePermission() || !dispatch(entry)) {
+                    return;
+                }
+            }
+        } finally {
+            replayLock.unlock();
+        }
+    }
+
+    /**
+     * Sends up to {@code limit} queued invoices, oldest first, in one concurrent
+     * batch, ignoring their backoff schedule. Meant for clearing a backlog at
+     * end of shift once connectivity is back; the scheduled replay is paused
+     * while it runs.
+     */
+    public PraBatchResult drainBacklog(int limit) {
+        if (limit < 1 || limit > MAX_DRAIN) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_DRAIN);
+        }
+        if (!replayLock.tryLock()) {
+            throw new ConflictException("Backlog replay is already running");
+        }
+        try {
+            long started = System.nanoTime();
+            List<FiscalizationOutboxEntry> entries = new ArrayList<>();
+            List<PraInvoiceModel> invoices = new ArrayList<>();
+            for (FiscalizationOutboxEntry entry : outboxRepository.findAll(
+                    PageRequest.of(0, limit, Sort.by("createdAt")))) {
+                PraInvoiceModel invoice = resolveOrRetry(entry);
+                if (invoice != null) {
+                    entries.add(entry);
+                    invoices.add(invoice);
+                }
+            }
+
+            List<PraBatchItemResult> results = fiscalizationClient.fiscalizeAll(invoices);
+            for (int i = 0; i < results.size(); i++) {
+                PraFiscalizationResult result = results.get(i).result();
+                if (result.success()) {
+                    markFiscalized(entries.get(i), result);
+                } else {
+                    scheduleRetry(entries.get(i), result.message());
+                }
+            }
+            PraBatchResult batch = PraBatchResult.of(results, Duration.ofNanos(System.nanoTime() - started).toMillis());
+            logger.info("Drained PRA backlog: {} submitted, {} fiscalized, {} failed in {} ms",
+                batch.submitted(), batch.succeeded(), batch.failed(), batch.elapsedMillis());
+            return batch;
+        } finally {
+            replayLock.unlock();
+        }
+    }
+
+    private boolean praReachable() {
+        PraHealth health = fiscalizationClient.health();
+        if ("UNAVAILABLE".equals(health.status())) {
+            return false;
+        }
+        return !"OPEN".equals(health.circuitState()) && !"FORCED_OPEN".equals(health.circuitState());
+    }
+
+    private byte[] capture(Order order) {
+        try {
+            return objectMapper.writeValueAsBytes(praInvoiceMapper.fromOrder(order));
+        } catch (JsonProcessingException | RuntimeException ex) {
+            logger.warn("Could not capture PRA invoice for order {} at checkout: {}", order.getId(), ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return false when PRA could not be reached and the batch should stop
+     */
+    private boolean dispatch(FiscalizationOutboxEntry entry) {
+        PraInvoiceModel invoice = resolveOrRetry(entry);
+        if (invoice == null) {
+            return true;
+        }
+
+        PraFiscalizationResult result;
+        try {
+            result = phase("pra", () -> fiscalizationClient.fiscalize(invoice));
+        } catch (PraUnavailableException ex) {
+            Instant retryAt = scheduleRetry(entry, ex.getMessage());
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.deferAllUntil(retryAt));
+            return false;
+        } catch (RuntimeException ex) {
+            scheduleRetry(entry, ex.getMessage());
+            return true;
+        }
+        if (!result.success()) {
+            scheduleRetry(entry, result.message());
+            return true;
+        }
+        markFiscalized(entry, result);
+        return true;
+    }
+
+    /**
+     * The invoice to send for {@code entry}, or null when there is nothing to
+     * send now: the order is gone (entry dropped) or the invoice could not be
+     * built (entry rescheduled).
+     */
+    private PraInvoiceModel resolveOrRetry(FiscalizationOutboxEntry entry) {
+        PraInvoiceModel invoice;
+        try {
+            invoice = entry.getPayload() != null
+                ? phase("decode", () -> decode(entry.getPayload()))
+                : loadAndMap(entry);
+        } catch (RuntimeException ex) {
+            scheduleRetry(entry, ex.getMessage());
+            return null;
+        }
+        if (invoice == null) {
+            logger.warn("Dropping outbox entry {}: order {} no longer exists", entry.getId(), entry.getOrderId());
+            outboxRepository.delete(entry);
+        }
+        return invoice;
+    }
+
+    private void markFiscalized(FiscalizationOutboxEntry entry, PraFiscalizationResult result) {
+        phase("save", () -> transactionTemplate.execute(status -> {
+            Order paid = orderRepository.findById(entry.getOrderId()).orElseThrow();
+            paid.setFiscalInvoiceNumber(result.fiscalInvoiceNumber());
+            paid.setFiscalQrText(result.qrText());
+            paid.setFiscalVerificationUrl(result.verificationUrl());
+            paid.setFiscalStatus(FiscalStatus.FISCALIZED);
+            orderRepository.save(paid);
+            outboxRepository.deleteById(entry.getId());
+            return paid;
+        }));
+        logger.info("Order {} fiscalized as {} after {} attempt(s)",
+            entry.getOrderId(), result.fiscalInvoiceNumber(), entry.getAttempts() + 1);
+        // Published after the commit, so the event stream can load the order in a transaction of its own
+        events.publishEvent(new OrderChanged(OrderEventType.FISCALIZED, entry.getOrderId(), null));
+    }
+
+    private PraInvoiceModel loadAndMap(FiscalizationOutboxEntry entry) {
+        Order order = phase("load", () -> readOnlyTemplate.execute(status ->
+            orderRepository.findWithItemsById(entry.getOrderId()).orElse(null)));
+        if (order == null) {
+            return null;
+        }
+        // Lines and items are fetched by the entity graph, so mapping works on the detached order
+        return phase("map", () -> praInvoiceMapper.fromOrder(order));
+    }
+
+    private PraInvoiceModel decode(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, PraInvoiceModel.class);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Stored PRA payload is unreadable: " + ex.getMessage(), ex);
+        }
+    }
+
+    private <T> T phase(String name, Supplier<T> work) {
+        return meterRegistry.timer("pos.fiscalization.phase", "phase", name).record(work);
+    }
+
+    private Instant scheduleRetry(FiscalizationOutboxEntry entry, String error) {
+        int attempts = entry.getAttempts() + 1;
+        Duration delay = backoff(attempts);
+        Instant retryAt = Instant.now().plus(delay);
+        entry.setAttempts(attempts);
+        entry.setLastError(error);
+        entry.setNextAttemptAt(retryAt);
+        outboxRepository.save(entry);
+        logger.warn("PRA fiscalization failed for order {} (attempt {}): {}; retrying in {}s",
+            entry.getOrderId(), attempts, error, delay.toSeconds());
+        return retryAt;
+    }
+
+    private Duration backoff(int attempts) {
+        int exponent = Math.min(attempts - 1, 20);
+        Duration delay = initialBackoff.multipliedBy(1L << exponent);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
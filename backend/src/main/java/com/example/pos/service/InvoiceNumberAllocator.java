@@ -0,0 +1,141 @@
+package com.example.pos.service;
+
+import com.example.pos.repository.InvoiceSequenceRepository;
+import com.example.pos.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Hands out invoice numbers {@code INV-yyyyMMdd-<terminal>-<seq>}, counting from
+ * 1 per terminal and local business date. Numbers come from a block reserved in
+ * {@code invoice_sequences}, so the common case is one atomic increment; only
+ * a block refill touches the database, in its own transaction.
+ *
+ * <p>On shutdown the unused tail of the block is handed back and marked
+ * released. The first refill of the day resumes after the higher of the last
+ * released number and the highest number stored on an order; after a crash
+ * nothing was released, so the stored orders alone decide. Restarts therefore
+ * never reissue a number and leave no gaps (a number whose order insert rolled
+ * back is the only one skipped). Each running backend needs its own
+ * {@code app.invoice.terminal-id}.
+ */
+@Component
+public class InvoiceNumberAllocator {
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceNumberAllocator.class);
+    private static final Pattern TERMINAL_ID = Pattern.compile("[A-Z0-9]{1,16}");
+
+    private final InvoiceSequenceRepository sequenceRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate ownTransaction;
+    private final String terminalId;
+    private final int blockSize;
+    private final AtomicReference<Block> current = new AtomicReference<>();
+    private final Set<LocalDate> reconciled = new HashSet<>();
+
+    public InvoiceNumberAllocator(InvoiceSequenceRepository sequenceRepository,
+                                  OrderRepository orderRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.invoice.terminal-id:T01}") String terminalId,
+                                  @Value("${app.invoice.block-size:50}") int blockSize) {
+        String normalized = terminalId.trim().toUpperCase(Locale.ROOT);
+        if (!TERMINAL_ID.matcher(normalized).matches()) {
+            throw new IllegalArgumentException("app.invoice.terminal-id must be 1-16 letters or digits");
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("app.invoice.block-size must be positive");
+        }
+        this.sequenceRepository = sequenceRepository;
+        this.orderRepository = orderRepository;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.terminalId = normalized;
+        this.blockSize = blockSize;
+    }
+
+    public String next() {
+        LocalDate today = LocalDate.now();
+        while (true) {
+            Block block = current.get();
+            if (block != null && block.date().equals(today)) {
+                long sequence = block.next().getAndIncrement();
+                if (sequence <= block.last()) {
+                    return format(block.prefix(), sequence);
+                }
+            }
+            refill(block, today);
+        }
+    }
+
+    private synchronized void refill(Block exhausted, LocalDate date) {
+        if (current.get() != exhausted) {
+            return;
+        }
+        String businessDate = date.toString();
+        boolean reconcile = !reconciled.contains(date);
+        long last = ownTransaction.execute(status -> {
+            if (reconcile) {
+                String prefix = prefix(date);
+                long stored = orderRepository.findLastInvoiceNumber(prefix)
+                    .map(number -> Long.parseLong(number.substring(prefix.length())))
+                    .orElse(0L);
+                long used = Math.max(stored,
+                    sequenceRepository.findReleasedHighWater(terminalId, businessDate).orElse(0L));
+                sequenceRepository.resetTo(terminalId, businessDate, used + blockSize);
+                return used + blockSize;
+            }
+            sequenceRepository.reserve(terminalId, businessDate, blockSize);
+            return sequenceRepository.findHighWater(terminalId, businessDate);
+        });
+        // Only once the reconciling refill committed; after a failed one the next refill must reconcile again
+        reconciled.add(date);
+        logger.debug("Reserved invoice numbers {}-{} for {} on {}", last - blockSize + 1, last, terminalId, date);
+        current.set(new Block(date, prefix(date), new AtomicLong(last - blockSize + 1), last));
+    }
+
+    /**
+     * Hands the unused tail of the current block back so the next start
+     * continues right after the last issued number.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        Block block = current.getAndSet(null);
+        if (block == null) {
+            return;
+        }
+        long issued = Math.min(block.next().get() - 1, block.last());
+        if (issued < block.last()) {
+            ownTransaction.executeWithoutResult(status ->
+                sequenceRepository.release(terminalId, block.date().toString(), block.last(), issued));
+        }
+    }
+
+    private String prefix(LocalDate date) {
+        return "INV-" + date.format(DateTimeFormatter.BASIC_ISO_DATE) + "-" + terminalId + "-";
+    }
+
+    private static String format(String prefix, long sequence) {
+        String digits = Long.toString(sequence);
+        StringBuilder number = new StringBuilder(prefix.length() + 6).append(prefix);
+        for (int i = digits.length(); i < 6; i++) {
+            number.append('0');
+        }
+        return number.append(digits).toString();
+    }
+
+    private record Block(LocalDate date, String prefix, AtomicLong next, long last) {}
+}
@@ -1,5 +1,6 @@
 package com.example.pos.service;
 
+import com.example.pos.dto.CatalogStats;
 import com.example.pos.dto.ItemRequest;
 import com.example.pos.dto.ItemResponse;
 import com.example.pos.entity.Item;
@@ -13,21 +14,27 @@ import java.util.UUID;
 @Service
 public class ItemService {
     private final ItemRepository itemRepository;
+    private final MenuCatalogCache catalogCache;
 
-    public ItemService(ItemRepository itemRepository) {
+    public ItemService(ItemRepository itemRepository, MenuCatalogCache catalogCache) {
         this.itemRepository = itemRepository;
+        this.catalogCache = catalogCache;
     }
 
     public List<ItemResponse> listActive() {
-        return itemRepository.findByIsActiveTrueOrderByNameAsc().stream()
-            .map(this::toResponse)
-            .toList();
+        return catalogCache.current().active();
     }
 
     public List<ItemResponse> listAll() {
-        return itemRepository.findAllByOrderByNameAsc().stream()
-            .map(this::toResponse)
-            .toList();
+        return catalogCache.current().all();
+    }
+
+    public CatalogRepresentation catalogRepresentation(boolean includeInactive) {
+        return catalogCache.current().representation(includeInactive);
+    }
+
+    public CatalogStats catalogStats() {
+        return catalogCache.stats();
     }
 
     public ItemResponse create(ItemRequest request) {
@@ -38,7 +45,7 @@ public class ItemService {
         item.setItemCode(request.itemCode());
         item.setPctCode(request.pctCode());
         item.setActive(true);
-        return toResponse(itemRepository.save(item));
+        return saveAndPublish(item);
     }
 
     public ItemResponse update(UUID id, ItemRequest request) {
@@ -49,24 +56,30 @@ public class ItemService {
         item.setCategory(request.category());
         item.setItemCode(request.itemCode());
         item.setPctCode(request.pctCode());
-        return toResponse(itemRepository.save(item));
+        return saveAndPublish(item);
     }
 
     public void softDelete(UUID id) {
         Item item = itemRepository.findById(id)
             .orElseThrow(() -> new EntityNotFoundException("Item not found"));
         item.setActive(false);
-        itemRepository.save(item);
+        saveAndPublish(item);
     }
 
     public ItemResponse toggleActive(UUID id) {
         Item item = itemRepository.findById(id)
             .orElseThrow(() -> new EntityNotFoundException("Item not found"));
         item.setActive(!item.isActive());
-        return toResponse(itemRepository.save(item));
+        return saveAndPublish(item);
+    }
+
+    private ItemResponse saveAndPublish(Item item) {
+        ItemResponse saved = toResponse(itemRepository.save(item));
+        catalogCache.refresh(saved.id());
+        return saved;
     }
 
-    private ItemResponse toResponse(Item item) {
+    static ItemResponse toResponse(Item item) {
         return new ItemResponse(
             item.getId(),
             item.getName(),
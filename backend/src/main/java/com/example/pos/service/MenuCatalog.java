@@ -0,0 +1,119 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.ItemResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Immutable, name-sorted snapshot of the menu. A new snapshot with a higher
+ * version is built for every change and swapped in by {@link MenuCatalogCache};
+ * readers never lock.
+ */
+public final class MenuCatalog {
+    private static final Comparator<ItemResponse> BY_NAME = Comparator.comparing(ItemResponse::name);
+
+    private final List<ItemResponse> all;
+    private final List<ItemResponse> active;
+    private final Map<UUID, ItemResponse> byId;
+    private final Map<String, ItemResponse> byItemCode;
+    private final Map<String, List<ItemResponse>> byCategory;
+    private final long version;
+    private final CatalogRepresentation activeRepresentation;
+    private final CatalogRepresentation allRepresentation;
+    private final ObjectMapper objectMapper;
+    private final Instant builtAt;
+
+    MenuCatalog(List<ItemResponse> sortedItems, long version, ObjectMapper objectMapper) {
+        this.all = List.copyOf(sortedItems);
+        this.active = all.stream().filter(ItemResponse::isActive).toList();
+        this.version = version;
+        this.objectMapper = objectMapper;
+        this.activeRepresentation = CatalogRepresentation.of("active", version, serialize(active));
+        this.allRepresentation = CatalogRepresentation.of("all", version, serialize(all));
+        this.builtAt = Instant.now();
+
+        Map<UUID, ItemResponse> ids = new LinkedHashMap<>();
+        Map<String, ItemResponse> codes = new LinkedHashMap<>();
+        Map<String, List<ItemResponse>> categories = new LinkedHashMap<>();
+        for (ItemResponse item : all) {
+            ids.put(item.id(), item);
+            if (item.itemCode() != null && !item.itemCode().isBlank()) {
+                codes.put(item.itemCode(), item);
+            }
+            categories.computeIfAbsent(item.category(), key -> new ArrayList<>()).add(item);
+        }
+        this.byId = Map.copyOf(ids);
+        this.byItemCode = Map.copyOf(codes);
+        Map<String, List<ItemResponse>> frozen = new LinkedHashMap<>();
+        categories.forEach((category, items) -> frozen.put(category, List.copyOf(items)));
+        this.byCategory = Map.copyOf(frozen);
+    }
+
+    /**
+     * Returns a new snapshot with {@code item} added or replaced, keeping name order.
+     */
+    MenuCatalog with(ItemResponse item, long newVersion) {
+        List<ItemResponse> items = new ArrayList<>(all.size() + 1);
+        for (ItemResponse existing : all) {
+            if (!existing.id().equals(item.id())) {
+                items.add(existing);
+            }
+        }
+        items.add(item);
+        items.sort(BY_NAME);
+        return new MenuCatalog(items, newVersion, objectMapper);
+    }
+
+    public List<ItemResponse> all() {
+        return all;
+    }
+
+    public List<ItemResponse> active() {
+        return active;
+    }
+
+    public Optional<ItemResponse> findById(UUID id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public Optional<ItemResponse> findByItemCode(String itemCode) {
+        return Optional.ofNullable(byItemCode.get(itemCode));
+    }
+
+    public List<ItemResponse> byCategory(String category) {
+        return byCategory.getOrDefault(category, List.of());
+    }
+
+    public CatalogRepresentation representation(boolean includeInactive) {
+        return includeInactive ? allRepresentation : activeRepresentation;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    private byte[] serialize(List<ItemResponse> items) {
+        try {
+            return objectMapper.writeValueAsBytes(items);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize menu catalog", ex);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.CatalogStats;
+import com.example.pos.dto.ItemResponse;
+import com.example.pos.repository.ItemRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link MenuCatalog}. The catalog is loaded from SQLite once
+ * and afterwards updated write-through by {@link ItemService}, so reads from the
+ * POS grid and the order-line path never hit the database.
+ */
+@Component
+public class MenuCatalogCache {
+    private static final Logger logger = LoggerFactory.getLogger(MenuCatalogCache.class);
+
+    private final ItemRepository itemRepository;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<MenuCatalog> current = new AtomicReference<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public MenuCatalogCache(ItemRepository itemRepository, ObjectMapper objectMapper) {
+        this.itemRepository = itemRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public MenuCatalog current() {
+        MenuCatalog catalog = current.get();
+        if (catalog != null) {
+            hits.incrementAndGet();
+            return catalog;
+        }
+        return load();
+    }
+
+    /**
+     * Reloads the whole catalog from the database.
+     */
+    public synchronized MenuCatalog rebuild() {
+        MenuCatalog catalog = new MenuCatalog(itemRepository.findAllByOrderByNameAsc().stream()
+            .map(ItemService::toResponse)
+            .toList(), version.incrementAndGet(), objectMapper);
+        current.set(catalog);
+        rebuilds.incrementAndGet();
+        logger.info("Menu catalog rebuilt with {} items", catalog.size());
+        return catalog;
+    }
+
+    /**
+     * Re-reads a saved item and swaps a snapshot with it in. The row is read
+     * under this cache's lock after the save committed, so when two saves of
+     * one item race, whichever publishes last still publishes the newer row.
+     */
+    public synchronized void refresh(UUID itemId) {
+        MenuCatalog catalog = current.get();
+        Optional<ItemResponse> item = itemRepository.findById(itemId).map(ItemService::toResponse);
+        if (catalog == null || item.isEmpty()) {
+            rebuild();
+        } else {
+            current.set(catalog.with(item.get(), version.incrementAndGet()));
+        }
+    }
+
+    private synchronized MenuCatalog load() {
+        MenuCatalog catalog = current.get();
+        if (catalog != null) {
+            hits.incrementAndGet();
+            return catalog;
+        }
+        misses.incrementAndGet();
+        return rebuild();
+    }
+
+    public CatalogStats stats() {
+        MenuCatalog catalog = current.get();
+        return new CatalogStats(
+            catalog == null ? 0 : catalog.version(),
+            hits.get(),
+            misses.get(),
+            rebuilds.get(),
+            catalog == null ? 0 : catalog.size(),
+            catalog == null ? null : catalog.builtAt()
+        );
+    }
+}
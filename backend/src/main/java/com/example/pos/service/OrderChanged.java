@@ -0,0 +1,13 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.OrderEventType;
+import com.example.pos.dto.OrderResponse;
+
+import java.util.UUID;
+
+/**
+ * Application event for a committed change to an order. {@code order} is the
+ * state after the change, or null when the publisher has none at hand and
+ * {@link OrderEventStream} should load it.
+ */
+public record OrderChanged(OrderEventType type, UUID orderId, OrderResponse order) {}
@@ -0,0 +1,36 @@
+package com.example.pos.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position in the order history, ordered by
+ * {@code (created_at DESC, id DESC)}.
+ */
+record OrderCursor(Instant createdAt, UUID id) {
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    static OrderCursor start(Instant before) {
+        return new OrderCursor(before, MAX_ID);
+    }
+
+    static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new OrderCursor(
+                Instant.ofEpochMilli(Long.parseLong(raw.substring(0, separator))),
+                UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String raw = createdAt.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
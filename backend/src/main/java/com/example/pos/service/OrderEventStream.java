@@ -0,0 +1,227 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.OrderEvent;
+import com.example.pos.dto.OrderEventType;
+import com.example.pos.dto.OrderResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed order changes to Server-Sent Events subscribers such as the
+ * kitchen display, so screens stop polling the order list. Each event gets a
+ * sequence id and is kept in a ring of the last {@code app.events.replay-size},
+ * from which a reconnecting client resumes after its {@code Last-Event-ID}.
+ *
+ * <p>Every subscriber has its own buffer of {@code app.events.subscriber-buffer}
+ * events, drained by a small sender pool. A subscriber that falls a whole
+ * buffer behind is closed and catches up from the ring when it reconnects, so
+ * a stuck screen never holds up the till or the other screens.
+ */
+@Component
+public class OrderEventStream {
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventStream.class);
+
+    private final OrderService orderService;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final OrderEvent[] ring;
+    private final long firstId;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders;
+    private final Counter overflows;
+    private long lastId;
+
+    public OrderEventStream(OrderService orderService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.events.replay-size:1000}") int replaySize,
+                            @Value("${app.events.subscriber-buffer:256}") int bufferSize,
+                            @Value("${app.events.sender-threads:2}") int senderThreads,
+                            @Value("${app.events.timeout:PT30M}") Duration timeout) {
+        if (replaySize < 1 || bufferSize < 1 || senderThreads < 1) {
+            throw new IllegalArgumentException("app.events sizes and sender-threads must be positive");
+        }
+        this.orderService = orderService;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.ring = new OrderEvent[replaySize];
+        // Ids keep growing across restarts, so an id from an earlier run is seen as too old to resume
+        this.lastId = System.currentTimeMillis() * 1000;
+        this.firstId = lastId + 1;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.overflows = meterRegistry.counter("pos.events.overflows");
+        Gauge.builder("pos.events.subscribers", subscribers, List::size)
+            .description("Open order event streams")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Runs once the publishing transaction has committed, so screens never show
+     * an edit that rolled back, or right away when there was no transaction.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChanged change) {
+        try {
+            OrderResponse order = change.order() != null ? change.order() : orderService.getOrder(change.orderId());
+            publish(change.type(), order);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not publish {} event for order {}: {}", change.type(), change.orderId(), ex.getMessage());
+        }
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        subscribe(lastEventId, emitter);
+        return emitter;
+    }
+
+    /**
+     * Attaches {@code emitter}, first queueing the events after {@code lastEventId}.
+     * When those are no longer all in the ring, or would not fit the buffer,
+     * the subscriber gets a {@link OrderEventType#RESET} instead.
+     */
+    synchronized void subscribe(Long lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        if (lastEventId != null && lastEventId != lastId) {
+            long oldest = Math.max(firstId, lastId - ring.length + 1);
+            if (lastEventId < oldest - 1 || lastEventId > lastId || lastId - lastEventId > bufferSize) {
+                subscriber.queue.add(new OrderEvent(lastId, OrderEventType.RESET, Instant.now(), null));
+            } else {
+                for (long id = lastEventId + 1; id <= lastId; id++) {
+                    subscriber.queue.add(ring[slot(id)]);
+                }
+            }
+        }
+        subscribers.add(subscriber);
+        subscriber.schedule();
+    }
+
+    synchronized void publish(OrderEventType type, OrderResponse order) {
+        OrderEvent event = new OrderEvent(++lastId, type, Instant.now(), order);
+        ring[slot(event.id())] = event;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offer(event)) {
+                subscriber.schedule();
+            } else {
+                overflows.increment();
+                logger.info("Closing an order event stream that fell {} events behind", bufferSize);
+                subscribers.remove(subscriber);
+                subscriber.close();
+            }
+        }
+    }
+
+    /** Comment line that keeps idle connections open through proxies and finds dead clients. */
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.execute(subscriber::ping);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(Subscriber::close);
+        subscribers.clear();
+        senders.shutdown();
+    }
+
+    private int slot(long id) {
+        return (int) Math.floorMod(id, (long) ring.length);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<OrderEvent> queue = new ArrayBlockingQueue<>(bufferSize + 1);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                OrderEvent event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                        .id(Long.toString(event.id()))
+                        .name(event.type().name().toLowerCase(Locale.ROOT))
+                        .data(event, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException ex) {
+                failed(ex);
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void ping() {
+            try {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            } catch (IOException | IllegalStateException ex) {
+                failed(ex);
+            }
+        }
+
+        private void failed(Exception ex) {
+            logger.debug("Order event stream closed: {}", ex.getMessage());
+            subscribers.remove(this);
+            closed = true;
+            emitter.completeWithError(ex);
+        }
+
+        void close() {
+            closed = true;
+            execute(emitter::complete);
+        }
+
+        void execute(Runnable task) {
+            try {
+                senders.execute(task);
+            } catch (RejectedExecutionException ex) {
+                closed = true;
+                subscribers.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.OrderResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Applies quantity deltas to an order, rerunning the edit in a fresh transaction
+ * when another terminal changed the order first. Deltas commute, so replaying
+ * one on top of the other terminal's edit gives the same result as if the two
+ * had run in sequence. Absolute edits are not retried; their conflicts surface
+ * as 409.
+ */
+@Component
+public class OrderItemDeltas {
+    private static final Logger logger = LoggerFactory.getLogger(OrderItemDeltas.class);
+    static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MS = 5;
+
+    private final OrderService orderService;
+    private final MeterRegistry meterRegistry;
+
+    public OrderItemDeltas(OrderService orderService, MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public OrderResponse apply(UUID orderId, UUID itemId, int delta) {
+        if (delta == 0) {
+            throw new IllegalArgumentException("delta must not be 0");
+        }
+        return retrying(orderId, () -> orderService.adjustItemQuantity(orderId, itemId, delta));
+    }
+
+    /**
+     * Applies the deltas of several lines together, retried as one.
+     */
+    public OrderResponse applyAll(UUID orderId, Map<UUID, Integer> deltas) {
+        return retrying(orderId, () -> orderService.adjustItemQuantities(orderId, deltas));
+    }
+
+    /**
+     * {@link #applyAll(UUID, Map)} that takes effect at most once per
+     * {@code flushKey}, see {@link OrderService#adjustItemQuantities(UUID, Map, UUID)}.
+     */
+    public OrderResponse applyAll(UUID orderId, Map<UUID, Integer> deltas, UUID flushKey) {
+        return retrying(orderId, () -> orderService.adjustItemQuantities(orderId, deltas, flushKey));
+    }
+
+    private OrderResponse retrying(UUID orderId, Supplier<OrderResponse> edit) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return edit.get();
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    meterRegistry.counter("pos.order.conflicts", "operation", "item_delta", "outcome", "exhausted").increment();
+                    throw ex;
+                }
+                meterRegistry.counter("pos.order.conflicts", "operation", "item_delta", "outcome", "retried").increment();
+                logger.debug("Order {} changed concurrently, retrying delta (attempt {})", orderId, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private static void backoff(int attempt) {
+        // Jittered so terminals that collided once do not collide again in lockstep
+        long sleepMs = BASE_BACKOFF_MS * attempt + ThreadLocalRandom.current().nextLong(BASE_BACKOFF_MS);
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying order edit", ex);
+        }
+    }
+}
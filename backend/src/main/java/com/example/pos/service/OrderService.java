@@ -1,111 +1,289 @@
 package com.example.pos.service;
 
+import com.example.pos.dto.ItemResponse;
+import com.example.pos.dto.OrderEventType;
+import com.example.pos.dto.OrderItemChange;
 import com.example.pos.dto.OrderItemRequest;
 import com.example.pos.dto.OrderItemResponse;
+import com.example.pos.dto.OrderPageResponse;
 import com.example.pos.dto.OrderResponse;
 import com.example.pos.dto.OrderUpdateRequest;
-import com.example.pos.entity.Item;
+import com.example.pos.entity.FiscalStatus;
 import com.example.pos.entity.Order;
 import com.example.pos.entity.OrderItem;
 import com.example.pos.entity.OrderStatus;
 import com.example.pos.entity.PaymentMode;
-import com.example.pos.pra.PraFiscalizationClient;
-import com.example.pos.pra.PraInvoiceMapper;
-import com.example.pos.pra.dto.PraFiscalizationResult;
+import com.example.pos.exception.ConflictException;
+import com.example.pos.money.Money;
 import com.example.pos.repository.ItemRepository;
-import com.example.pos.repository.OrderItemRepository;
 import com.example.pos.repository.OrderRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneId;
+import java.util.AbstractList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 public class OrderService {
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T00:00:00Z");
+    private static final int MAX_CHECKOUT_KEY_LENGTH = 128;
     private final OrderRepository orderRepository;
-    private final OrderItemRepository orderItemRepository;
     private final ItemRepository itemRepository;
-    private final PraFiscalizationClient fiscalizationClient;
-    private final PraInvoiceMapper praInvoiceMapper;
+    private final MenuCatalogCache catalogCache;
+    private final FiscalizationOutbox fiscalizationOutbox;
+    private final SalesRollupService salesRollupService;
+    private final InvoiceNumberAllocator invoiceNumbers;
+    private final OrderTaxes orderTaxes;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary cartLines;
+    private final boolean verifyTotals;
 
     public OrderService(OrderRepository orderRepository,
-                        OrderItemRepository orderItemRepository,
                         ItemRepository itemRepository,
-                        @Qualifier("praFiscalizationClient") PraFiscalizationClient fiscalizationClient,
-                        PraInvoiceMapper praInvoiceMapper) {
+                        MenuCatalogCache catalogCache,
+                        FiscalizationOutbox fiscalizationOutbox,
+                        SalesRollupService salesRollupService,
+                        InvoiceNumberAllocator invoiceNumbers,
+                        OrderTaxes orderTaxes,
+                        ApplicationEventPublisher events,
+                        TransactionTemplate transactionTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.order.verify-totals:false}") boolean verifyTotals) {
         this.orderRepository = orderRepository;
-        this.orderItemRepository = orderItemRepository;
         this.itemRepository = itemRepository;
-        this.fiscalizationClient = fiscalizationClient;
-        this.praInvoiceMapper = praInvoiceMapper;
+        this.catalogCache = catalogCache;
+        this.fiscalizationOutbox = fiscalizationOutbox;
+        this.salesRollupService = salesRollupService;
+        this.invoiceNumbers = invoiceNumbers;
+        this.orderTaxes = orderTaxes;
+        this.events = events;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.cartLines = DistributionSummary.builder("pos.checkout.cart.lines")
+            .description("Distinct lines per checked-out order")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.verifyTotals = verifyTotals;
     }
 
+    // Not @Transactional: a block refill in the invoice allocator commits on the
+    // single writer connection, which must not be held by a surrounding transaction
     public OrderResponse createOrder() {
         Order order = new Order();
         order.setStatus(OrderStatus.DRAFT);
         order.setPaymentMode(PaymentMode.CASH);
-        order.setInvoiceNumber(generateInvoiceNumber());
-        return toResponse(orderRepository.save(order));
+        order.setInvoiceNumber(invoiceNumbers.next());
+        return published(OrderEventType.CREATED, toResponse(orderRepository.save(order)));
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponse> listOrders(OrderStatus status) {
         List<Order> orders = status == null
-            ? orderRepository.findAllByOrderByCreatedAtDesc()
-            : orderRepository.findByStatusOrderByCreatedAtDesc(status);
+            ? orderRepository.findAllWithItemsByOrderByCreatedAtDesc()
+            : orderRepository.findWithItemsByStatusOrderByCreatedAtDesc(status);
         return orders.stream().map(this::toResponse).toList();
     }
 
+    /**
+     * Keyset page of the order history, newest first. {@code from}/{@code to} are
+     * inclusive local dates and {@code cursor} is the {@code nextCursor} of the
+     * previous page.
+     */
+    @Transactional(readOnly = true)
+    public OrderPageResponse listOrdersPage(OrderStatus status, LocalDate from, LocalDate to, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        ZoneId zoneId = ZoneId.systemDefault();
+        Instant start = from == null ? Instant.EPOCH : from.atStartOfDay(zoneId).toInstant();
+        Instant end = to == null ? END_OF_TIME : to.plusDays(1).atStartOfDay(zoneId).toInstant();
+        OrderCursor after = cursor == null || cursor.isBlank() ? OrderCursor.start(end) : OrderCursor.decode(cursor);
+
+        List<UUID> ids = orderRepository.findPageIds(
+            status, start, end, after.createdAt(), after.id(), PageRequest.of(0, limit));
+        if (ids.isEmpty()) {
+            return new OrderPageResponse(List.of(), null);
+        }
+
+        Map<UUID, Order> loaded = new HashMap<>();
+        for (Order order : orderRepository.findWithItemsByIdIn(ids)) {
+            loaded.put(order.getId(), order);
+        }
+        List<OrderResponse> items = ids.stream()
+            .map(loaded::get)
+            .filter(Objects::nonNull)
+            .map(this::toResponse)
+            .toList();
+
+        String nextCursor = null;
+        if (ids.size() == limit) {
+            Order last = loaded.get(ids.get(ids.size() - 1));
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new OrderPageResponse(items, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
     public OrderResponse getOrder(UUID id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithItemsById(id)
             .orElseThrow(() -> new EntityNotFoundException("Order not found"));
         return toResponse(order);
     }
 
+    @Transactional
     public OrderResponse addOrUpdateItem(UUID orderId, OrderItemRequest request) {
-        Order order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new EntityNotFoundException("Order not found"));
-        if (order.getStatus() != OrderStatus.DRAFT) {
-            throw new IllegalArgumentException("Only DRAFT orders can be modified");
+        Order order = loadDraft(orderId);
+        setLineQuantity(order, request.itemId(), request.quantity());
+        updateTotals(order);
+        return published(OrderEventType.LINE_CHANGED, toResponse(order));
+    }
+
+    /**
+     * Applies a whole cart delta in one transaction. Each change sets the line's
+     * absolute quantity; a quantity of 0 removes the line.
+     */
+    @Transactional
+    public OrderResponse applyItemChanges(UUID orderId, List<OrderItemChange> changes) {
+        Order order = loadDraft(orderId);
+        for (OrderItemChange change : changes) {
+            if (change.quantity() == 0) {
+                findLine(order, change.itemId()).ifPresent(line -> removeLine(order, line));
+            } else {
+                setLineQuantity(order, change.itemId(), change.quantity());
+            }
         }
+        updateTotals(order);
+        return published(OrderEventType.LINE_CHANGED, toResponse(order));
+    }
 
-        Item item = itemRepository.findById(request.itemId())
-            .orElseThrow(() -> new EntityNotFoundException("Item not found"));
+    /**
+     * Adds {@code delta} (which may be negative) to the line's quantity; the line
+     * is removed once it drops to zero. Unlike setting an absolute quantity this
+     * commutes with other edits, so {@link OrderItemDeltas} can safely rerun it
+     * after an optimistic lock conflict.
+     */
+    @Transactional
+    public OrderResponse adjustItemQuantity(UUID orderId, UUID itemId, int delta) {
+        return adjustItemQuantities(orderId, Map.of(itemId, delta));
+    }
 
-        OrderItem orderItem = orderItemRepository.findByOrderIdAndItemId(orderId, request.itemId())
-            .orElseGet(() -> {
-                OrderItem created = new OrderItem();
-                created.setOrder(order);
-                created.setItem(item);
-                order.getItems().add(created);
-                return created;
-            });
+    /**
+     * {@link #adjustItemQuantity} for several lines in one transaction.
+     */
+    @Transactional
+    public OrderResponse adjustItemQuantities(UUID orderId, Map<UUID, Integer> deltas) {
+        return applyDeltas(loadDraft(orderId), deltas);
+    }
 
-        orderItem.setQuantity(request.quantity());
-        orderItem.setUnitPrice(item.getPrice());
-        orderItem.setLineTotal(item.getPrice().multiply(BigDecimal.valueOf(request.quantity())));
+    /**
+     * {@link #adjustItemQuantities} at most once per {@code flushKey}, as the
+     * cart session cache writes its pending deltas. The key is stored with the
+     * lines; when the order already carries it the deltas are in and nothing
+     * changes, so replaying a journaled flush that did commit is harmless.
+     */
+    @Transactional
+    public OrderResponse adjustItemQuantities(UUID orderId, Map<UUID, Integer> deltas, UUID flushKey) {
+        Order order = orderRepository.findWithItemsById(orderId)
+            .orElseThrow(() -> new EntityNotFoundException("Order not found"));
+        String key = flushKey.toString();
+        if (key.equals(order.getCartFlushKey())) {
+            return toResponse(order);
+        }
+        requireDraft(order);
+        order.setCartFlushKey(key);
+        return applyDeltas(order, deltas);
+    }
 
-        orderItemRepository.save(orderItem);
-        recalcTotals(order);
-        return toResponse(orderRepository.save(order));
+    private OrderResponse applyDeltas(Order order, Map<UUID, Integer> deltas) {
+        deltas.forEach((itemId, delta) -> {
+            Optional<OrderItem> line = findLine(order, itemId);
+            int quantity = line.map(OrderItem::getQuantity).orElse(0) + delta;
+            if (quantity > 0) {
+                setLineQuantity(order, itemId, quantity);
+            } else {
+                line.ifPresent(existing -> removeLine(order, existing));
+            }
+        });
+        updateTotals(order);
+        return published(OrderEventType.LINE_CHANGED, toResponse(order));
     }
 
     public OrderResponse checkout(UUID orderId) {
+        return checkout(orderId, null);
+    }
+
+    /**
+     * Checks the order out, remembering {@code idempotencyKey} with it. Repeating
+     * the call with the same key returns the already paid order without another
+     * checkout or PRA submission; a different key for a paid order is a conflict.
+     * Use {@link CheckoutGuard} to serialize concurrent attempts on one order.
+     * <p>
+     * The {@code pos.checkout} timer wraps the transaction, so it includes the
+     * commit and a failed commit is tagged {@code outcome=error}.
+     */
+    public OrderResponse checkout(UUID orderId, String idempotencyKey) {
+        Timer.Sample checkoutSample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_CHECKOUT_KEY_LENGTH)) {
+                throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_CHECKOUT_KEY_LENGTH + " characters");
+            }
+            CheckoutResult result = transactionTemplate.execute(status -> checkoutInTransaction(orderId, idempotencyKey));
+            outcome = result.replayed() ? "replayed" : "success";
+            return result.order();
+        } catch (IllegalArgumentException | ConflictException ex) {
+            outcome = "rejected";
+            throw ex;
+        } finally {
+            checkoutSample.stop(meterRegistry.timer("pos.checkout", "outcome", outcome));
+        }
+    }
+
+    private CheckoutResult checkoutInTransaction(UUID orderId, String idempotencyKey) {
+        Order order = phase("load", () -> orderRepository.findWithItemsById(orderId)
+            .orElseThrow(() -> new EntityNotFoundException("Order not found")));
+        if (idempotencyKey != null && idempotencyKey.equals(order.getCheckoutKey())) {
+            logger.info("Checkout of order {} replayed for Idempotency-Key {}", orderId, idempotencyKey);
+            return new CheckoutResult(toResponse(order), true);
+        }
+        if (idempotencyKey != null && order.getStatus() == OrderStatus.PAID) {
+            throw new ConflictException("Order was already checked out by another request");
+        }
+        return new CheckoutResult(published(OrderEventType.CHECKED_OUT, doCheckout(order, idempotencyKey)), false);
+    }
+
+    private record CheckoutResult(OrderResponse order, boolean replayed) {
+    }
+
+    private OrderResponse doCheckout(Order order, String idempotencyKey) {
         logger.info("╔════════════════════════════════════════╗");
         logger.info("║     ORDER CHECKOUT STARTED             ║");
         logger.info("╚════════════════════════════════════════╝");
         
-        Order order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new EntityNotFoundException("Order not found"));
-        
         logger.info("Order ID: {}", order.getId());
         logger.info("Invoice Number: {}", order.getInvoiceNumber());
         logger.info("Status: {}", order.getStatus());
@@ -121,9 +299,13 @@ public class OrderService {
         if (order.getPaymentMode() == null) {
             throw new IllegalArgumentException("Payment mode is required");
         }
+        cartLines.record(order.getItems().size());
         
         logger.info("Recalculating order totals...");
-        recalcTotals(order);
+        phase("recalc", () -> {
+            applyTotals(order, verifiedSubtotal(order));
+            return order;
+        });
         
         logger.info("Order Totals:");
         logger.info("  Subtotal: {}", order.getSubtotal());
@@ -132,27 +314,17 @@ public class OrderService {
         logger.info("  Total: {}", order.getTotal());
         logger.info("  GST Rate: {}", order.getGstRate());
         
-        logger.info("Starting PRA fiscalization...");
-        PraFiscalizationResult result = fiscalizationClient.fiscalize(praInvoiceMapper.fromOrder(order));
-        
-        if (result.success()) {
-            logger.info("✅ PRA Fiscalization SUCCESS");
-            logger.info("Fiscal Invoice Number: {}", result.fiscalInvoiceNumber());
-            logger.info("QR Text: {}", result.qrText());
-            logger.info("Verification URL: {}", result.verificationUrl());
-            logger.info("Message: {}", result.message());
-        } else {
-            logger.error("❌ PRA Fiscalization FAILED");
-            logger.error("Message: {}", result.message());
-        }
-        
-        order.setFiscalInvoiceNumber(result.fiscalInvoiceNumber());
-        order.setFiscalQrText(result.qrText());
-        order.setFiscalVerificationUrl(result.verificationUrl());
         order.setStatus(OrderStatus.PAID);
+        order.setFiscalStatus(FiscalStatus.PENDING);
+        order.setCheckoutKey(idempotencyKey);
         
-        Order savedOrder = orderRepository.save(order);
-        logger.info("Order saved with status: {}", savedOrder.getStatus());
+        Order savedOrder = phase("save", () -> {
+            Order saved = orderRepository.saveAndFlush(order);
+            salesRollupService.recordSale(saved);
+            fiscalizationOutbox.enqueue(saved);
+            return saved;
+        });
+        logger.info("Order saved with status: {}, queued for PRA fiscalization", savedOrder.getStatus());
         
         logger.info("╔════════════════════════════════════════╗");
         logger.info("║     ORDER CHECKOUT COMPLETED           ║");
@@ -161,8 +333,13 @@ public class OrderService {
         return toResponse(savedOrder);
     }
 
+    private <T> T phase(String name, Supplier<T> work) {
+        return meterRegistry.timer("pos.checkout.phase", "phase", name).record(work);
+    }
+
+    @Transactional
     public OrderResponse updateOrder(UUID orderId, OrderUpdateRequest request) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
             .orElseThrow(() -> new EntityNotFoundException("Order not found"));
         if (request.customerName() != null) {
             order.setCustomerName(request.customerName());
@@ -182,78 +359,184 @@ public class OrderService {
         if (request.notes() != null) {
             order.setNotes(request.notes());
         }
+        boolean draft = order.getStatus() == OrderStatus.DRAFT;
+        // Paid totals are already in the sales rollup and the fiscal invoice, which are never revised
+        if (!draft && (request.discount() != null || request.paymentMode() != null)) {
+            throw new ConflictException("Discount and payment mode can only be changed in DRAFT");
+        }
         if (request.discount() != null) {
             order.setDiscount(request.discount());
         }
         if (request.paymentMode() != null) {
-            if (order.getStatus() != OrderStatus.DRAFT) {
-                throw new IllegalArgumentException("Payment mode can only be changed in DRAFT");
-            }
             order.setPaymentMode(PaymentMode.valueOf(request.paymentMode()));
         }
-        recalcTotals(order);
-        return toResponse(orderRepository.save(order));
+        if (draft) {
+            updateTotals(order);
+        }
+        return published(OrderEventType.UPDATED, toResponse(orderRepository.save(order)));
     }
 
+    @Transactional
     public OrderResponse cancelOrder(UUID orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
             .orElseThrow(() -> new EntityNotFoundException("Order not found"));
         if (order.getStatus() == OrderStatus.PAID) {
             throw new IllegalArgumentException("Paid orders cannot be cancelled");
         }
         order.setStatus(OrderStatus.CANCELLED);
-        return toResponse(orderRepository.save(order));
+        return published(OrderEventType.CANCELLED, toResponse(orderRepository.save(order)));
     }
 
+    @Transactional
     public OrderResponse removeItem(UUID orderId, UUID itemId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = loadDraft(orderId);
+        OrderItem orderItem = findLine(order, itemId)
+            .orElseThrow(() -> new EntityNotFoundException("Order item not found"));
+        removeLine(order, orderItem);
+        updateTotals(order);
+        return published(OrderEventType.LINE_CHANGED, toResponse(order));
+    }
+
+    /** Hands the change to {@link OrderEventStream}, which sends it once the transaction commits. */
+    private OrderResponse published(OrderEventType type, OrderResponse order) {
+        events.publishEvent(new OrderChanged(type, order.id(), order));
+        return order;
+    }
+
+    private Order loadDraft(UUID orderId) {
+        Order order = orderRepository.findWithItemsById(orderId)
             .orElseThrow(() -> new EntityNotFoundException("Order not found"));
+        requireDraft(order);
+        return order;
+    }
+
+    private static void requireDraft(Order order) {
         if (order.getStatus() != OrderStatus.DRAFT) {
             throw new IllegalArgumentException("Only DRAFT orders can be modified");
         }
-        OrderItem orderItem = orderItemRepository.findByOrderIdAndItemId(orderId, itemId)
-            .orElseThrow(() -> new EntityNotFoundException("Order item not found"));
-        order.getItems().remove(orderItem);
-        orderItemRepository.delete(orderItem);
-        recalcTotals(order);
-        return toResponse(orderRepository.save(order));
     }
 
-    private void recalcTotals(Order order) {
-        logger.debug("Recalculating order totals for order: {}", order.getId());
-        
-        BigDecimal subtotal = order.getItems().stream()
-            .map(OrderItem::getLineTotal)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal orderDiscount = order.getDiscount() == null ? BigDecimal.ZERO : order.getDiscount();
-        BigDecimal discounted = subtotal.subtract(orderDiscount);
-        if (discounted.signum() < 0) {
-            discounted = BigDecimal.ZERO;
+    private Optional<OrderItem> findLine(Order order, UUID itemId) {
+        return order.getItems().stream()
+            .filter(line -> line.getItem().getId().equals(itemId))
+            .findFirst();
+    }
+
+    private void setLineQuantity(Order order, UUID itemId, int quantity) {
+        ItemResponse item = catalogCache.current().findById(itemId)
+            .orElseThrow(() -> new EntityNotFoundException("Item not found"));
+
+        OrderItem orderItem = findLine(order, itemId)
+            .orElseGet(() -> {
+                OrderItem created = new OrderItem();
+                created.setOrder(order);
+                created.setItem(itemRepository.getReferenceById(item.id()));
+                order.getItems().add(created);
+                return created;
+            });
+
+        Money previous = Money.of(orderItem.getLineTotal());
+        Money lineTotal = Money.of(item.price()).times(quantity);
+        orderItem.setQuantity(quantity);
+        orderItem.setUnitPrice(item.price());
+        orderItem.setLineTotal(lineTotal.toBigDecimal());
+        moveSubtotal(order, lineTotal.minus(previous));
+    }
+
+    private void removeLine(Order order, OrderItem line) {
+        order.getItems().remove(line);
+        moveSubtotal(order, Money.ZERO.minus(Money.of(line.getLineTotal())));
+    }
+
+    /**
+     * The order's subtotal is a running sum: every line edit moves it by the
+     * change in that line's total, so a tap on a long catering order does not
+     * re-add all of its lines.
+     */
+    private static void moveSubtotal(Order order, Money delta) {
+        if (delta.signum() != 0) {
+            order.setSubtotal(Money.of(order.getSubtotal()).plus(delta).toBigDecimal());
+        }
+    }
+
+    /**
+     * Tax and total from the running subtotal after an edit. With
+     * {@code app.order.verify-totals} the subtotal is checked against a full
+     * recompute first, as the integration tests run.
+     */
+    private void updateTotals(Order order) {
+        applyTotals(order, verifyTotals ? verifiedSubtotal(order) : Money.of(order.getSubtotal()));
+    }
+
+    /**
+     * The line sum, compared with the running subtotal. Checkout always goes
+     * through here, so drift in production is counted and repaired once per
+     * order; with {@code app.order.verify-totals} it fails the edit instead.
+     */
+    private Money verifiedSubtotal(Order order) {
+        Money running = Money.of(order.getSubtotal());
+        Money summed = sumLines(order);
+        if (!summed.equals(running)) {
+            meterRegistry.counter("pos.order.totals.drift").increment();
+            if (verifyTotals) {
+                throw new IllegalStateException("Running subtotal " + running + " of order " + order.getId()
+                    + " does not match its lines (" + summed + ")");
+            }
+            logger.warn("Running subtotal {} of order {} drifted from its lines ({}), repairing",
+                running, order.getId(), summed);
+        }
+        return summed;
+    }
+
+    private static Money sumLines(Order order) {
+        Money subtotal = Money.ZERO;
+        for (OrderItem line : order.getItems()) {
+            subtotal = subtotal.plus(Money.of(line.getLineTotal()));
         }
+        return subtotal;
+    }
+
+    private void applyTotals(Order order, Money subtotal) {
+        logger.debug("Recalculating order totals for order: {}", order.getId());
+
+        Money orderDiscount = Money.of(order.getDiscount());
+        Money discounted = subtotal.minus(orderDiscount).max(Money.ZERO);
 
         PaymentMode mode = order.getPaymentMode() == null ? PaymentMode.CASH : order.getPaymentMode();
         order.setPaymentMode(mode);
-        BigDecimal gstRate = resolveGstRate(mode);
-        BigDecimal tax = discounted.multiply(gstRate)
-            .setScale(2, java.math.RoundingMode.HALF_UP);
-        BigDecimal total = discounted.add(tax).setScale(2, java.math.RoundingMode.HALF_UP);
-
-        order.setSubtotal(subtotal.setScale(2, java.math.RoundingMode.HALF_UP));
-        order.setTax(tax);
-        order.setTotal(total);
-        order.setGstRate(gstRate);
-        order.setGstAmount(tax);
+        Money tax = applyTax(order, mode, subtotal, orderDiscount, discounted);
+        Money total = discounted.plus(tax);
+
+        BigDecimal taxAmount = tax.toBigDecimal();
+        order.setSubtotal(subtotal.toBigDecimal());
+        order.setTax(taxAmount);
+        order.setTotal(total.toBigDecimal());
+        order.setGstAmount(taxAmount);
         
         logger.debug("Totals calculated - Subtotal: {}, Discount: {}, Tax: {}, Total: {}", 
             subtotal, orderDiscount, tax, total);
     }
 
-    private BigDecimal resolveGstRate(PaymentMode paymentMode) {
-        if (paymentMode == PaymentMode.CARD) {
-            return new BigDecimal("0.05");
-        }
-        return new BigDecimal("0.16");
+    /**
+     * Sets the order's GST rate and returns its tax, see {@link OrderTaxes}.
+     */
+    private Money applyTax(Order order, PaymentMode mode, Money subtotal, Money discount, Money discounted) {
+        List<OrderItem> items = order.getItems();
+        OrderTaxes.Assessment assessment = orderTaxes.assess(mode, order.getCreatedAt(), subtotal, discount, discounted,
+            new AbstractList<>() {
+                @Override
+                public OrderTaxes.Line get(int index) {
+                    OrderItem line = items.get(index);
+                    return new OrderTaxes.Line(line.getItem().getId(), Money.of(line.getLineTotal()));
+                }
+
+                @Override
+                public int size() {
+                    return items.size();
+                }
+            });
+        order.setGstRate(assessment.gstRate());
+        return assessment.tax();
     }
 
     private OrderResponse toResponse(Order order) {
@@ -266,6 +549,7 @@ public class OrderService {
             order.getFiscalInvoiceNumber(),
             order.getFiscalQrText(),
             order.getFiscalVerificationUrl(),
+            order.getFiscalStatus(),
             order.getSubtotal(),
             order.getTax(),
             order.getTotal(),
@@ -286,19 +570,17 @@ public class OrderService {
     }
 
     private OrderItemResponse toItemResponse(OrderItem orderItem) {
+        UUID itemId = orderItem.getItem().getId();
+        String itemName = catalogCache.current().findById(itemId)
+            .map(ItemResponse::name)
+            .orElseGet(() -> orderItem.getItem().getName());
         return new OrderItemResponse(
             orderItem.getId(),
-            orderItem.getItem().getId(),
-            orderItem.getItem().getName(),
+            itemId,
+            itemName,
             orderItem.getQuantity(),
             orderItem.getUnitPrice(),
             orderItem.getLineTotal()
         );
     }
-
-    private String generateInvoiceNumber() {
-        String date = LocalDate.now(ZoneOffset.UTC).format(DateTimeFormatter.BASIC_ISO_DATE);
-        String suffix = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "INV-" + date + "-" + suffix;
-    }
 }
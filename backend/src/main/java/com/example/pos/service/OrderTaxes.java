@@ -0,0 +1,67 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.ItemResponse;
+import com.example.pos.entity.PaymentMode;
+import com.example.pos.money.Money;
+import com.example.pos.tax.TaxEngine;
+import com.example.pos.tax.TaxRate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * GST for an order, shared by {@link OrderService} and the cart sessions. While
+ * every line resolves to one rate the tax is taken on the discounted subtotal,
+ * as it always was; lines at different rates are taxed one by one on their
+ * share of the discounted subtotal, the way the PRA invoice does, and the order
+ * keeps the payment-mode rate.
+ */
+@Component
+public class OrderTaxes {
+    private final TaxEngine taxEngine;
+    private final MenuCatalogCache catalogCache;
+
+    public OrderTaxes(TaxEngine taxEngine, MenuCatalogCache catalogCache) {
+        this.taxEngine = taxEngine;
+        this.catalogCache = catalogCache;
+    }
+
+    /** {@code lines} is only read when line-level tax rules exist. */
+    public Assessment assess(PaymentMode mode, Instant createdAt, Money subtotal, Money discount,
+                             Money discounted, List<Line> lines) {
+        long soldAt = createdAt == null ? System.currentTimeMillis() : createdAt.toEpochMilli();
+        TaxRate base = taxEngine.baseRate(mode, soldAt);
+        if (discounted.signum() == 0 || !taxEngine.hasLineRules(mode) || lines.isEmpty()) {
+            return new Assessment(base.rate(), discounted.atRate(base.basisPoints()));
+        }
+
+        MenuCatalog catalog = catalogCache.current();
+        TaxRate[] rates = new TaxRate[lines.size()];
+        boolean uniform = true;
+        for (int i = 0; i < rates.length; i++) {
+            ItemResponse item = catalog.findById(lines.get(i).itemId()).orElse(null);
+            rates[i] = item == null
+                ? taxEngine.rateFor(mode, null, null, soldAt)
+                : taxEngine.rateFor(mode, item.pctCode(), item.category(), soldAt);
+            uniform &= rates[i].basisPoints() == rates[0].basisPoints();
+        }
+        if (uniform) {
+            return new Assessment(rates[0].rate(), discounted.atRate(rates[0].basisPoints()));
+        }
+
+        Money tax = Money.ZERO;
+        for (int i = 0; i < rates.length; i++) {
+            Money line = lines.get(i).lineTotal();
+            Money sale = discount.signum() > 0 ? line.minus(discount.shareOf(line, subtotal)) : line;
+            tax = tax.plus(sale.atRate(rates[i].basisPoints()));
+        }
+        return new Assessment(base.rate(), tax);
+    }
+
+    public record Line(UUID itemId, Money lineTotal) {}
+
+    public record Assessment(BigDecimal gstRate, Money tax) {}
+}
@@ -1,26 +1,61 @@
 package com.example.pos.service;
 
+import com.example.pos.dto.DailySalesConsistencyResponse;
 import com.example.pos.dto.DailySalesReportResponse;
+import com.example.pos.dto.SalesGranularity;
+import com.example.pos.dto.SalesReportResponse;
 import com.example.pos.entity.Order;
 import com.example.pos.entity.OrderStatus;
+import com.example.pos.repository.OrderItemRepository;
 import com.example.pos.repository.OrderRepository;
+import com.example.pos.repository.SalesProjections.SalesAggregate;
+import com.example.pos.repository.SalesProjections.SlotAggregate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class ReportService {
+    private static final int MAX_TOP_ITEMS = 100;
+    private static final long SLOT_MILLIS = 900_000;
+    private static final DateTimeFormatter HOUR_PERIOD = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:00");
+
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final SalesRollupService salesRollupService;
 
-    public ReportService(OrderRepository orderRepository) {
+    public ReportService(OrderRepository orderRepository,
+                         OrderItemRepository orderItemRepository,
+                         SalesRollupService salesRollupService) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.salesRollupService = salesRollupService;
     }
 
+    @Transactional(readOnly = true)
     public DailySalesReportResponse dailySales(LocalDate date) {
+        SalesRollupService.DailySalesTotals totals = salesRollupService.totalsFor(date);
+        return new DailySalesReportResponse(date, Math.toIntExact(totals.orderCount()), totals.totalSales());
+    }
+
+    /**
+     * Computes the daily report straight from the orders table, bypassing the rollup.
+     */
+    @Transactional(readOnly = true)
+    public DailySalesReportResponse scanDailySales(LocalDate date) {
         ZoneId zoneId = ZoneId.systemDefault();
         Instant start = date.atStartOfDay(zoneId).toInstant();
         Instant end = date.plusDays(1).atStartOfDay(zoneId).toInstant();
@@ -32,4 +67,131 @@ public class ReportService {
 
         return new DailySalesReportResponse(date, orders.size(), totalSales);
     }
+
+    @Transactional(readOnly = true)
+    public DailySalesConsistencyResponse checkConsistency(LocalDate date) {
+        DailySalesReportResponse rollup = dailySales(date);
+        DailySalesReportResponse scan = scanDailySales(date);
+        boolean consistent = rollup.orderCount() == scan.orderCount()
+            && rollup.totalSales().compareTo(scan.totalSales()) == 0;
+        return new DailySalesConsistencyResponse(
+            date,
+            rollup.orderCount(),
+            rollup.totalSales(),
+            scan.orderCount(),
+            scan.totalSales(),
+            consistent
+        );
+    }
+
+    public int rebuildDailySalesRollup() {
+        return salesRollupService.rebuild();
+    }
+
+    /**
+     * Sales for {@code from..to} (inclusive, local dates) with every breakdown
+     * aggregated by SQLite. Line-level figures (categories, items) are gross of
+     * order discount and tax. Buckets are local periods of the system zone: SQLite
+     * sums per quarter hour and each quarter hour is placed with the offset in
+     * force at that instant, so a range across a DST change still buckets right.
+     */
+    @Transactional(readOnly = true)
+    public SalesReportResponse sales(LocalDate from, LocalDate to, SalesGranularity granularity, int top) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (top < 1 || top > MAX_TOP_ITEMS) {
+            throw new IllegalArgumentException("'top' must be between 1 and " + MAX_TOP_ITEMS);
+        }
+        ZoneId zoneId = ZoneId.systemDefault();
+        long startMillis = from.atStartOfDay(zoneId).toInstant().toEpochMilli();
+        long endMillis = to.plusDays(1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+
+        SalesAggregate sum = orderRepository.sumPaidSales(startMillis, endMillis);
+        SalesReportResponse.Totals totals = new SalesReportResponse.Totals(
+            sum.getOrderCount(),
+            money(sum.getSubtotal()),
+            money(sum.getDiscount()),
+            money(sum.getTax()),
+            money(sum.getTotal())
+        );
+
+        Map<String, PeriodSum> periods = new TreeMap<>();
+        for (SlotAggregate row : orderRepository.sumPaidSalesBySlot(startMillis, endMillis)) {
+            String period = period(Instant.ofEpochMilli(row.getSlot() * SLOT_MILLIS), zoneId, granularity);
+            periods.computeIfAbsent(period, key -> new PeriodSum()).add(row);
+        }
+        List<SalesReportResponse.Bucket> buckets = periods.entrySet().stream()
+            .map(entry -> new SalesReportResponse.Bucket(
+                entry.getKey(),
+                entry.getValue().orderCount,
+                money(entry.getValue().subtotal),
+                money(entry.getValue().discount),
+                money(entry.getValue().tax),
+                money(entry.getValue().total)))
+            .toList();
+
+        List<SalesReportResponse.PaymentModeSales> byPaymentMode = orderRepository
+            .sumPaidSalesByPaymentMode(startMillis, endMillis).stream()
+            .map(row -> new SalesReportResponse.PaymentModeSales(
+                row.getPaymentMode(),
+                row.getOrderCount(),
+                money(row.getTax()),
+                money(row.getTotal())))
+            .toList();
+
+        List<SalesReportResponse.CategorySales> byCategory = orderItemRepository
+            .sumPaidSalesByCategory(startMillis, endMillis).stream()
+            .map(row -> new SalesReportResponse.CategorySales(
+                row.getCategory(),
+                row.getQuantity(),
+                money(row.getSales())))
+            .toList();
+
+        List<SalesReportResponse.ItemSales> topItems = orderItemRepository
+            .topPaidItems(startMillis, endMillis, top).stream()
+            .map(row -> new SalesReportResponse.ItemSales(
+                row.getItemCode(),
+                row.getItemName(),
+                row.getCategory(),
+                row.getQuantity(),
+                money(row.getSales())))
+            .toList();
+
+        return new SalesReportResponse(from, to, granularity, totals, buckets, byPaymentMode, byCategory, topItems);
+    }
+
+    /**
+     * The local period {@code instant} falls in: {@code 2024-05-05T14:00} for an
+     * hour, {@code 2024-05-05} for a day and the Monday for a week. Labels sort
+     * in time order.
+     */
+    static String period(Instant instant, ZoneId zoneId, SalesGranularity granularity) {
+        LocalDateTime local = LocalDateTime.ofInstant(instant, zoneId);
+        return switch (granularity) {
+            case HOUR -> local.truncatedTo(ChronoUnit.HOURS).format(HOUR_PERIOD);
+            case DAY -> local.toLocalDate().toString();
+            case WEEK -> local.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toString();
+        };
+    }
+
+    private static BigDecimal money(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO.setScale(2) : value.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static final class PeriodSum {
+        private long orderCount;
+        private BigDecimal subtotal = BigDecimal.ZERO;
+        private BigDecimal discount = BigDecimal.ZERO;
+        private BigDecimal tax = BigDecimal.ZERO;
+        private BigDecimal total = BigDecimal.ZERO;
+
+        void add(SlotAggregate row) {
+            orderCount += row.getOrderCount();
+            subtotal = subtotal.add(row.getSubtotal());
+            discount = discount.add(row.getDiscount());
+            tax = tax.add(row.getTax());
+            total = total.add(row.getTotal());
+        }
+    }
 }
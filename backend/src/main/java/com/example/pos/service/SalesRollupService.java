@@ -0,0 +1,118 @@
+package com.example.pos.service;
+
+import com.example.pos.entity.DailySalesRollup;
+import com.example.pos.entity.DailySalesRollupId;
+import com.example.pos.entity.Order;
+import com.example.pos.entity.OrderStatus;
+import com.example.pos.entity.PaymentMode;
+import com.example.pos.repository.DailySalesRollupRepository;
+import com.example.pos.repository.OrderRepository;
+import com.example.pos.repository.PaidOrderSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains {@code daily_sales_rollup}, the per business date and payment mode
+ * PAID order count and total that backs the daily sales report.
+ */
+@Service
+public class SalesRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private final DailySalesRollupRepository rollupRepository;
+    private final OrderRepository orderRepository;
+
+    public SalesRollupService(DailySalesRollupRepository rollupRepository, OrderRepository orderRepository) {
+        this.rollupRepository = rollupRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Adds a freshly PAID order to its day. Must run in the checkout transaction.
+     */
+    @Transactional
+    public void recordSale(Order order) {
+        rollupRepository.increment(
+            businessDate(order.getCreatedAt()).toString(),
+            paymentMode(order.getPaymentMode()).name(),
+            1,
+            toMinor(order.getTotal())
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public DailySalesTotals totalsFor(LocalDate date) {
+        long orderCount = 0;
+        long totalMinor = 0;
+        for (DailySalesRollup row : rollupRepository.findByIdBusinessDate(date.toString())) {
+            orderCount += row.getOrderCount();
+            totalMinor += row.getTotalSalesMinor();
+        }
+        return new DailySalesTotals(orderCount, BigDecimal.valueOf(totalMinor, 2));
+    }
+
+    /**
+     * Recomputes the whole rollup from PAID orders.
+     *
+     * @return number of PAID orders folded into the rollup
+     */
+    @Transactional
+    public int rebuild() {
+        List<PaidOrderSummary> paid = orderRepository.findSummariesByStatus(OrderStatus.PAID);
+        Map<DailySalesRollupId, long[]> buckets = new HashMap<>();
+        for (PaidOrderSummary order : paid) {
+            DailySalesRollupId key = new DailySalesRollupId(
+                businessDate(order.getCreatedAt()).toString(),
+                paymentMode(order.getPaymentMode())
+            );
+            long[] bucket = buckets.computeIfAbsent(key, k -> new long[2]);
+            bucket[0]++;
+            bucket[1] += toMinor(order.getTotal());
+        }
+
+        rollupRepository.deleteAllInBatch();
+        rollupRepository.saveAll(buckets.entrySet().stream()
+            .map(entry -> new DailySalesRollup(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+            .toList());
+        logger.info("Daily sales rollup rebuilt from {} PAID orders across {} buckets", paid.size(), buckets.size());
+        return paid.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() == 0 && orderRepository.existsByStatus(OrderStatus.PAID)) {
+            rebuild();
+        }
+    }
+
+    static LocalDate businessDate(Instant createdAt) {
+        return createdAt.atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static PaymentMode paymentMode(PaymentMode mode) {
+        return mode == null ? PaymentMode.CASH : mode;
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public record DailySalesTotals(long orderCount, BigDecimal totalSales) {}
+}
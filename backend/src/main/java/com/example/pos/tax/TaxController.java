@@ -0,0 +1,24 @@
+package com.example.pos.tax;
+
+import com.example.pos.tax.dto.TaxRulesResponse;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tax")
+public class TaxController {
+    private final TaxEngine taxEngine;
+
+    public TaxController(TaxEngine taxEngine) {
+        this.taxEngine = taxEngine;
+    }
+
+    @GetMapping("/rules")
+    public TaxRulesResponse rules() {
+        return taxEngine.rules();
+    }
+
+    @PostMapping("/admin/reload")
+    public TaxRulesResponse reload() {
+        return taxEngine.reload();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.pos.tax;
+
+import com.example.pos.entity.PaymentMode;
+import com.example.pos.pra.PraProperties;
+import com.example.pos.tax.dto.TaxRulesResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Decides the GST rate for order totals and PRA invoice lines alike. Rules from
+ * {@link TaxProperties} and the PRA cash/card rates are compiled into an
+ * immutable {@link TaxTable} at startup and swapped in whole on
+ * {@link #reload()}, so readers never see a half-built table and lookups never
+ * allocate.
+ */
+@Component
+public class TaxEngine {
+    private static final Logger logger = LoggerFactory.getLogger(TaxEngine.class);
+
+    private final TaxProperties taxProperties;
+    private final PraProperties praProperties;
+    private final ResourceLoader resourceLoader = new DefaultResourceLoader();
+    private final AtomicReference<TaxTable> table = new AtomicReference<>();
+
+    public TaxEngine(TaxProperties taxProperties, PraProperties praProperties) {
+        this.taxProperties = taxProperties;
+        this.praProperties = praProperties;
+        reload();
+    }
+
+    /**
+     * The rate for one line sold at {@code epochMilli}. A blank or all-zero PCT
+     * code counts as {@code pra.default-pct-code}, as on the invoice.
+     */
+    public TaxRate rateFor(PaymentMode mode, String pctCode, String category, long epochMilli) {
+        return table.get().lookup(mode, pctCode, category, epochMilli);
+    }
+
+    /** The rate for the payment mode, ignoring PCT code and category rules. */
+    public TaxRate baseRate(PaymentMode mode, long epochMilli) {
+        return table.get().base(mode, epochMilli);
+    }
+
+    /** Whether any rule can give lines of this payment mode different rates. */
+    public boolean hasLineRules(PaymentMode mode) {
+        return table.get().hasLineRules(mode);
+    }
+
+    public TaxRulesResponse rules() {
+        return table.get().describe();
+    }
+
+    /**
+     * Recompiles the rules, re-reading {@code app.tax.rules-file} if one is set.
+     * A rule set that does not compile is rejected and the current table stays.
+     */
+    public synchronized TaxRulesResponse reload() {
+        List<TaxProperties.Rule> rules = new ArrayList<>(taxProperties.getRules());
+        rules.addAll(readRulesFile());
+        TaxTable previous = table.get();
+        long version = previous == null ? 1 : previous.describe().version() + 1;
+        TaxTable compiled = TaxTable.compile(rules, praProperties, version, Instant.now());
+        table.set(compiled);
+        logger.info("Tax rules v{} compiled: {} rules", version, compiled.describe().rules().size());
+        return compiled.describe();
+    }
+
+    private List<TaxProperties.Rule> readRulesFile() {
+        String location = taxProperties.getRulesFile();
+        if (location == null || location.isBlank()) {
+            return List.of();
+        }
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            throw new IllegalArgumentException("Tax rules file " + location + " not found");
+        }
+        try {
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader().load(location, resource);
+            return new Binder(ConfigurationPropertySources.from(sources))
+                .bind("app.tax.rules", Bindable.listOf(TaxProperties.Rule.class))
+                .orElse(List.of());
+        } catch (IOException | BindException ex) {
+            throw new IllegalArgumentException("Could not read tax rules from " + location + ": " + ex.getMessage(), ex);
+        }
+    }
+}
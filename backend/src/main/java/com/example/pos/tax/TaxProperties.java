@@ -0,0 +1,98 @@
+package com.example.pos.tax;
+
+import com.example.pos.entity.PaymentMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tax rules layered over the PRA cash and card GST rates. A rule keys on a PCT
+ * code or an item category (or neither, for a payment-mode wide rate), may be
+ * limited to one payment mode and to a time window, and wins over the
+ * {@code pra.*-gst-rate} defaults while it applies.
+ */
+@ConfigurationProperties(prefix = "app.tax")
+public class TaxProperties {
+
+    // Optional YAML file with an app.tax.rules list, re-read on every reload
+    private String rulesFile;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    public String getRulesFile() {
+        return rulesFile;
+    }
+
+    public void setRulesFile(String rulesFile) {
+        this.rulesFile = rulesFile;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    public static class Rule {
+        private PaymentMode paymentMode;
+        private String pctCode;
+        private String category;
+        private BigDecimal rate;
+        // Inclusive start, exclusive end; either may be left open
+        private Instant from;
+        private Instant until;
+
+        public PaymentMode getPaymentMode() {
+            return paymentMode;
+        }
+
+        public void setPaymentMode(PaymentMode paymentMode) {
+            this.paymentMode = paymentMode;
+        }
+
+        public String getPctCode() {
+            return pctCode;
+        }
+
+        public void setPctCode(String pctCode) {
+            this.pctCode = pctCode;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public BigDecimal getRate() {
+            return rate;
+        }
+
+        public void setRate(BigDecimal rate) {
+            this.rate = rate;
+        }
+
+        public Instant getFrom() {
+            return from;
+        }
+
+        public void setFrom(Instant from) {
+            this.from = from;
+        }
+
+        public Instant getUntil() {
+            return until;
+        }
+
+        public void setUntil(Instant until) {
+            this.until = until;
+        }
+    }
+}
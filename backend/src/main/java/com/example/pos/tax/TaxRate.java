@@ -0,0 +1,11 @@
+package com.example.pos.tax;
+
+import java.math.BigDecimal;
+
+/**
+ * A compiled rate: basis points for {@code Money} math, the rate as configured
+ * for {@code orders.gst_rate}, and the percentage PRA expects on invoice lines.
+ * Built once per table so lookups hand out shared instances.
+ */
+public record TaxRate(long basisPoints, BigDecimal rate, BigDecimal percent) {
+}
@@ -0,0 +1,192 @@
+package com.example.pos.tax;
+
+import com.example.pos.entity.PaymentMode;
+import com.example.pos.money.Money;
+import com.example.pos.pra.PraProperties;
+import com.example.pos.tax.dto.TaxRuleView;
+import com.example.pos.tax.dto.TaxRulesResponse;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tax rules compiled for lookup: one table per payment mode, with rules keyed by
+ * PCT code and by category, each key holding its time windows in match order.
+ * A lookup is an array index, at most two map probes and a short scan, and
+ * returns a shared {@link TaxRate}, so nothing is allocated per line.
+ *
+ * <p>Precedence is PCT code, then category, then the payment-mode rate; within
+ * a key, windowed rules come before open-ended ones and otherwise keep their
+ * configured order. The PRA cash and card rates close every mode's defaults.
+ */
+final class TaxTable {
+    private static final String UNSET_PCT_CODE = "00000000";
+    private static final Comparator<Window> WINDOWED_FIRST =
+        Comparator.comparing(window -> !window.windowed());
+
+    private final ModeTable[] modes;
+    private final String defaultPctCode;
+    private final TaxRulesResponse description;
+
+    private TaxTable(ModeTable[] modes, String defaultPctCode, TaxRulesResponse description) {
+        this.modes = modes;
+        this.defaultPctCode = defaultPctCode;
+        this.description = description;
+    }
+
+    static TaxTable compile(List<TaxProperties.Rule> rules, PraProperties pra, long version, Instant compiledAt) {
+        Map<BigDecimal, TaxRate> rates = new HashMap<>();
+        List<Compiled> compiled = new ArrayList<>(rules.size() + 2);
+        for (int i = 0; i < rules.size(); i++) {
+            compiled.add(compileRule(rules.get(i), i, rates));
+        }
+        compiled.add(baseRule(PaymentMode.CASH, pra.getCashGstRate(), rates));
+        compiled.add(baseRule(PaymentMode.CARD, pra.getCardGstRate(), rates));
+
+        PaymentMode[] paymentModes = PaymentMode.values();
+        ModeTable[] modes = new ModeTable[paymentModes.length];
+        for (PaymentMode mode : paymentModes) {
+            Map<String, List<Window>> byPct = new LinkedHashMap<>();
+            Map<String, List<Window>> byCategory = new LinkedHashMap<>();
+            List<Window> defaults = new ArrayList<>();
+            for (Compiled rule : compiled) {
+                if (rule.paymentMode() != null && rule.paymentMode() != mode) {
+                    continue;
+                }
+                if (rule.pctCode() != null) {
+                    byPct.computeIfAbsent(rule.pctCode(), key -> new ArrayList<>()).add(rule.window());
+                } else if (rule.category() != null) {
+                    byCategory.computeIfAbsent(rule.category(), key -> new ArrayList<>()).add(rule.window());
+                } else {
+                    defaults.add(rule.window());
+                }
+            }
+            modes[mode.ordinal()] = new ModeTable(freeze(byPct), freeze(byCategory), freeze(defaults));
+        }
+
+        List<TaxRuleView> views = compiled.stream()
+            .map(rule -> new TaxRuleView(rule.paymentMode(), rule.pctCode(), rule.category(),
+                rule.window().rate().rate(), instant(rule.window().from(), Long.MIN_VALUE),
+                instant(rule.window().until(), Long.MAX_VALUE)))
+            .toList();
+        return new TaxTable(modes, pra.getDefaultPctCode(), new TaxRulesResponse(version, compiledAt, views));
+    }
+
+    TaxRate lookup(PaymentMode mode, String pctCode, String category, long epochMilli) {
+        ModeTable table = table(mode);
+        if (table.byPct().size() > 0) {
+            boolean unset = pctCode == null || pctCode.isBlank() || UNSET_PCT_CODE.equals(pctCode);
+            String key = unset ? defaultPctCode : pctCode;
+            TaxRate rate = key == null ? null : match(table.byPct().get(key), epochMilli);
+            if (rate != null) {
+                return rate;
+            }
+        }
+        if (category != null && table.byCategory().size() > 0) {
+            TaxRate rate = match(table.byCategory().get(category), epochMilli);
+            if (rate != null) {
+                return rate;
+            }
+        }
+        return match(table.defaults(), epochMilli);
+    }
+
+    TaxRate base(PaymentMode mode, long epochMilli) {
+        return match(table(mode).defaults(), epochMilli);
+    }
+
+    boolean hasLineRules(PaymentMode mode) {
+        ModeTable table = table(mode);
+        return table.byPct().size() > 0 || table.byCategory().size() > 0;
+    }
+
+    TaxRulesResponse describe() {
+        return description;
+    }
+
+    private ModeTable table(PaymentMode mode) {
+        return modes[(mode == null ? PaymentMode.CASH : mode).ordinal()];
+    }
+
+    private static TaxRate match(Window[] windows, long epochMilli) {
+        if (windows == null) {
+            return null;
+        }
+        for (Window window : windows) {
+            if (epochMilli >= window.from() && epochMilli < window.until()) {
+                return window.rate();
+            }
+        }
+        return null;
+    }
+
+    private static Compiled compileRule(TaxProperties.Rule rule, int index, Map<BigDecimal, TaxRate> rates) {
+        String name = "app.tax.rules[" + index + "]";
+        if (rule.getRate() == null) {
+            throw new IllegalArgumentException(name + ".rate is required");
+        }
+        String pctCode = trimToNull(rule.getPctCode());
+        String category = trimToNull(rule.getCategory());
+        if (pctCode != null && category != null) {
+            throw new IllegalArgumentException(name + " must key on pct-code or category, not both");
+        }
+        long from = rule.getFrom() == null ? Long.MIN_VALUE : rule.getFrom().toEpochMilli();
+        long until = rule.getUntil() == null ? Long.MAX_VALUE : rule.getUntil().toEpochMilli();
+        if (from >= until) {
+            throw new IllegalArgumentException(name + ".from must be before until");
+        }
+        TaxRate rate = intern(rule.getRate(), name, rates);
+        return new Compiled(rule.getPaymentMode(), pctCode, category, new Window(from, until, rate));
+    }
+
+    private static Compiled baseRule(PaymentMode mode, double configured, Map<BigDecimal, TaxRate> rates) {
+        String name = "pra." + mode.name().toLowerCase(Locale.ROOT) + "-gst-rate";
+        TaxRate rate = intern(BigDecimal.valueOf(configured), name, rates);
+        return new Compiled(mode, null, null, new Window(Long.MIN_VALUE, Long.MAX_VALUE, rate));
+    }
+
+    private static TaxRate intern(BigDecimal rate, String name, Map<BigDecimal, TaxRate> rates) {
+        if (rate.signum() < 0 || rate.compareTo(BigDecimal.ONE) > 0) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1");
+        }
+        return rates.computeIfAbsent(rate, value -> {
+            long basisPoints = Money.basisPoints(value);
+            return new TaxRate(basisPoints, value, BigDecimal.valueOf(basisPoints, 2));
+        });
+    }
+
+    private static Map<String, Window[]> freeze(Map<String, List<Window>> rules) {
+        Map<String, Window[]> frozen = new HashMap<>();
+        rules.forEach((key, windows) -> frozen.put(key, freeze(windows)));
+        return Map.copyOf(frozen);
+    }
+
+    private static Window[] freeze(List<Window> windows) {
+        return windows.stream().sorted(WINDOWED_FIRST).toArray(Window[]::new);
+    }
+
+    private static Instant instant(long epochMilli, long open) {
+        return epochMilli == open ? null : Instant.ofEpochMilli(epochMilli);
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private record ModeTable(Map<String, Window[]> byPct, Map<String, Window[]> byCategory, Window[] defaults) {}
+
+    private record Window(long from, long until, TaxRate rate) {
+        boolean windowed() {
+            return from != Long.MIN_VALUE || until != Long.MAX_VALUE;
+        }
+    }
+
+    private record Compiled(PaymentMode paymentMode, String pctCode, String category, Window window) {}
+}
@@ -0,0 +1,16 @@
+package com.example.pos.tax.dto;
+
+import com.example.pos.entity.PaymentMode;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record TaxRuleView(
+    PaymentMode paymentMode,
+    String pctCode,
+    String category,
+    BigDecimal rate,
+    Instant from,
+    Instant until
+) {
+}
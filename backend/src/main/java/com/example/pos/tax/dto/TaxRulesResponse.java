@@ -0,0 +1,11 @@
+package com.example.pos.tax.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record TaxRulesResponse(
+    long version,
+    Instant compiledAt,
+    List<TaxRuleView> rules
+) {
+}
@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS daily_sales_rollup (
+    business_date TEXT NOT NULL,
+    payment_mode TEXT NOT NULL,
+    order_count INTEGER NOT NULL DEFAULT 0,
+    total_sales_minor INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (business_date, payment_mode)
+);
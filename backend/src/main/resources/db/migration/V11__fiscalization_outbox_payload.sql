@@ -0,0 +1,4 @@
+-- Invoice body captured at checkout so it can be replayed exactly as sold
+ALTER TABLE fiscalization_outbox ADD COLUMN payload BLOB;
+
+CREATE INDEX IF NOT EXISTS idx_fiscalization_outbox_created ON fiscalization_outbox(created_at);
@@ -0,0 +1,3 @@
+-- Idempotency-Key of the request that checked the order out; a retry with the
+-- same key gets the stored result instead of a second checkout
+ALTER TABLE orders ADD COLUMN checkout_key TEXT;
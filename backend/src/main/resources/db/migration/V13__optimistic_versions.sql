@@ -0,0 +1,3 @@
+-- Optimistic lock versions; concurrent edits of one order are detected instead of overwritten
+ALTER TABLE orders ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE order_items ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
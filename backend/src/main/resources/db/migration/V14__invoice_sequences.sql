@@ -0,0 +1,8 @@
+-- Per terminal and business date invoice counter. high_water is the last
+-- number reserved; the running backend hands out numbers below it from memory.
+CREATE TABLE IF NOT EXISTS invoice_sequences (
+    terminal_id TEXT NOT NULL,
+    business_date TEXT NOT NULL,
+    high_water INTEGER NOT NULL,
+    PRIMARY KEY (terminal_id, business_date)
+);
@@ -0,0 +1,3 @@
+-- Set when a clean shutdown handed the unused tail of a block back, so
+-- high_water is then the last number actually issued
+ALTER TABLE invoice_sequences ADD COLUMN released INTEGER NOT NULL DEFAULT 0;
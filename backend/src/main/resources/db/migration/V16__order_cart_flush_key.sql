@@ -0,0 +1,3 @@
+-- Key of the last cart session flush written to the order, committed with its
+-- lines; a journal replay under the same key is skipped instead of applied twice
+ALTER TABLE orders ADD COLUMN cart_flush_key TEXT;
@@ -0,0 +1,17 @@
+ALTER TABLE orders ADD COLUMN fiscal_status TEXT;
+
+UPDATE orders SET fiscal_status = 'FISCALIZED'
+WHERE status = 'PAID' AND fiscal_invoice_number IS NOT NULL;
+
+CREATE TABLE IF NOT EXISTS fiscalization_outbox (
+    id BLOB PRIMARY KEY,
+    order_id BLOB NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_fiscalization_outbox_order FOREIGN KEY (order_id) REFERENCES orders(id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_fiscalization_outbox_order ON fiscalization_outbox(order_id);
+CREATE INDEX IF NOT EXISTS idx_fiscalization_outbox_next_attempt ON fiscalization_outbox(next_attempt_at);
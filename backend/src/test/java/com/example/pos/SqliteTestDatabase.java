@@ -0,0 +1,27 @@
+package com.example.pos;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Base for tests that run against a real SQLite file. Every application
+ * context gets its own temporary database, with the cart journal next to it,
+ * so test classes with different configuration never see each other's rows.
+ */
+public abstract class SqliteTestDatabase {
+
+    @DynamicPropertySource
+    static void sqliteDatabase(DynamicPropertyRegistry registry) throws IOException {
+        Path db = Files.createTempFile("pos-test", ".db");
+        db.toFile().deleteOnExit();
+        String journal = db + ".cart";
+        new File(journal).deleteOnExit();
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + db);
+        registry.add("app.cart.journal-path", () -> journal);
+    }
+}
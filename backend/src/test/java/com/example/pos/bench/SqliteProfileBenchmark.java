@@ -0,0 +1,199 @@
+package com.example.pos.bench;
+
+import com.example.pos.config.SqliteDataSources;
+import com.example.pos.config.SqliteProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent checkout writers against report/history readers, once with the
+ * stock single pool (rollback journal, no busy timeout) and once with the WAL
+ * writer/reader profile. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class SqliteProfileBenchmark {
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final long DURATION_MS = 5_000;
+    private static final int SEED_ORDERS = 20_000;
+
+    @Test
+    void checkoutsAgainstReports() throws Exception {
+        Result stock = run("stock", this::stockPools);
+        Result tuned = run("wal-profile", this::tunedPools);
+        System.out.println(stock);
+        System.out.println(tuned);
+    }
+
+    private Pools stockPools(String url) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("bench-stock");
+        config.setJdbcUrl(url);
+        HikariDataSource pool = new HikariDataSource(config);
+        return new Pools(pool, pool);
+    }
+
+    private Pools tunedPools(String url) {
+        SqliteProperties props = new SqliteProperties();
+        return new Pools(SqliteDataSources.writer(url, props), SqliteDataSources.reader(url, props));
+    }
+
+    private Result run(String name, PoolFactory factory) throws Exception {
+        Path db = Files.createTempFile("pos-bench-" + name, ".db");
+        db.toFile().deleteOnExit();
+        String url = "jdbc:sqlite:" + db;
+        Pools pools = factory.create(url);
+        try {
+            seed(pools.writer());
+
+            AtomicLong checkouts = new AtomicLong();
+            AtomicLong reports = new AtomicLong();
+            AtomicLong errors = new AtomicLong();
+            List<Long> checkoutLatencies = new ArrayList<>();
+            long deadline = System.currentTimeMillis() + DURATION_MS;
+
+            ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+            List<Future<List<Long>>> writers = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                writers.add(executor.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    while (System.currentTimeMillis() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            checkout(pools.writer());
+                            checkouts.incrementAndGet();
+                            latencies.add(System.nanoTime() - start);
+                        } catch (SQLException ex) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+            for (int i = 0; i < READERS; i++) {
+                executor.submit(() -> {
+                    while (System.currentTimeMillis() < deadline) {
+                        try {
+                            report(pools.reader());
+                            reports.incrementAndGet();
+                        } catch (SQLException ex) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<List<Long>> writer : writers) {
+                checkoutLatencies.addAll(writer.get());
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+
+            checkoutLatencies.sort(null);
+            return new Result(name, checkouts.get(), reports.get(), errors.get(),
+                percentile(checkoutLatencies, 0.50), percentile(checkoutLatencies, 0.99));
+        } finally {
+            pools.close();
+        }
+    }
+
+    private void seed(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE orders (id INTEGER PRIMARY KEY, status TEXT, total NUMERIC, created_at INTEGER)");
+            statement.execute("CREATE INDEX idx_orders_status_created ON orders(status, created_at)");
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO orders (status, total, created_at) VALUES ('PAID', ?, ?)")) {
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < SEED_ORDERS; i++) {
+                    insert.setInt(1, 100 + i % 900);
+                    insert.setLong(2, now - i * 60_000L);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private void checkout(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO orders (status, total, created_at) VALUES ('DRAFT', ?, ?)", Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement pay = connection.prepareStatement(
+                     "UPDATE orders SET status = 'PAID' WHERE id = ?")) {
+                insert.setInt(1, ThreadLocalRandom.current().nextInt(100, 1000));
+                insert.setLong(2, System.currentTimeMillis());
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    pay.setLong(1, keys.getLong(1));
+                }
+                pay.executeUpdate();
+                connection.commit();
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    private void report(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement query = connection.prepareStatement(
+                 "SELECT COUNT(*), SUM(total) FROM orders WHERE status = 'PAID' AND created_at >= ?")) {
+            query.setLong(1, System.currentTimeMillis() - 7L * 24 * 60 * 60 * 1000);
+            try (ResultSet rs = query.executeQuery()) {
+                rs.next();
+            }
+        }
+    }
+
+    private static double percentile(List<Long> sortedNanos, double p) {
+        if (sortedNanos.isEmpty()) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(p * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(index, 0)) / 1_000_000.0;
+    }
+
+    private interface PoolFactory {
+        Pools create(String url) throws Exception;
+    }
+
+    private record Pools(HikariDataSource writer, HikariDataSource reader) {
+        void close() {
+            writer.close();
+            reader.close();
+        }
+    }
+
+    private record Result(String name, long checkouts, long reports, long errors, double p50Ms, double p99Ms) {
+        @Override
+        public String toString() {
+            return String.format("%-12s checkouts/s=%8.1f reports/s=%8.1f errors=%6d checkout p50=%.2fms p99=%.2fms",
+                name, checkouts * 1000.0 / DURATION_MS, reports * 1000.0 / DURATION_MS, errors, p50Ms, p99Ms);
+        }
+    }
+}
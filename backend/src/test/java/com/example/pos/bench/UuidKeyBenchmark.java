@@ -0,0 +1,123 @@
+package com.example.pos.bench;
+
+import com.example.pos.entity.UuidV7Generator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput and on-disk size of the orders table keyed by random (v4)
+ * versus time-ordered (v7) UUID BLOBs. Row count defaults to one million and
+ * can be changed with {@code -Dbench.orders=N}.
+ */
+@Tag("benchmark")
+class UuidKeyBenchmark {
+    private static final int ORDERS = Integer.getInteger("bench.orders", 1_000_000);
+    private static final int ROWS_PER_COMMIT = 10_000;
+
+    @Test
+    void randomVersusTimeOrderedKeys() throws Exception {
+        Result v4 = run("uuid-v4", UUID::randomUUID);
+        Result v7 = run("uuid-v7", UuidV7Generator::next);
+        System.out.println(v4);
+        System.out.println(v7);
+    }
+
+    private Result run(String name, Supplier<UUID> ids) throws Exception {
+        Path db = Files.createTempFile("pos-bench-" + name, ".db");
+        db.toFile().deleteOnExit();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + db)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode = WAL");
+                statement.execute("PRAGMA synchronous = NORMAL");
+                // Same shape as V1__init.sql: a rowid table with a unique index on the BLOB key
+                statement.execute("""
+                    CREATE TABLE orders (
+                        id BLOB PRIMARY KEY,
+                        invoice_number TEXT NOT NULL,
+                        status TEXT NOT NULL,
+                        total NUMERIC NOT NULL,
+                        created_at TIMESTAMP NOT NULL
+                    )""");
+            }
+            connection.setAutoCommit(false);
+
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO orders (id, invoice_number, status, total, created_at) VALUES (?, ?, 'PAID', ?, ?)")) {
+                for (int i = 1; i <= ORDERS; i++) {
+                    insert.setBytes(1, toBytes(ids.get()));
+                    insert.setString(2, "INV-" + i);
+                    insert.setInt(3, 100 + i % 900);
+                    insert.setLong(4, System.currentTimeMillis());
+                    insert.addBatch();
+                    if (i % ROWS_PER_COMMIT == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            connection.setAutoCommit(true);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            }
+            return new Result(name, elapsedNanos, pageBytes(connection), indexBytes(connection), Files.size(db));
+        }
+    }
+
+    private static long pageBytes(Connection connection) throws SQLException {
+        return pragma(connection, "page_count") * pragma(connection, "page_size");
+    }
+
+    private static long indexBytes(Connection connection) {
+        // dbstat is only present when SQLite is built with SQLITE_ENABLE_DBSTAT_VTAB
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                 "SELECT SUM(pgsize) FROM dbstat WHERE name = 'sqlite_autoindex_orders_1'")) {
+            return rs.next() ? rs.getLong(1) : -1;
+        } catch (SQLException ex) {
+            return -1;
+        }
+    }
+
+    private static long pragma(Connection connection, String name) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("PRAGMA " + name)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits())
+            .array();
+    }
+
+    private record Result(String name, long elapsedNanos, long databaseBytes, long keyIndexBytes, long fileBytes) {
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%-8s orders=%d inserts/s=%10.0f elapsed=%.1fs database=%.1fMiB key-index=%s file=%.1fMiB",
+                name, ORDERS, ORDERS / seconds, seconds, databaseBytes / 1048576.0,
+                keyIndexBytes < 0 ? "n/a" : String.format("%.1fMiB", keyIndexBytes / 1048576.0),
+                fileBytes / 1048576.0);
+        }
+    }
+}
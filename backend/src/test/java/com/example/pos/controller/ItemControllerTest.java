@@ -1,8 +1,10 @@
 package com.example.pos.controller;
 
+import com.example.pos.dto.CatalogStats;
 import com.example.pos.dto.ItemRequest;
 import com.example.pos.dto.ItemResponse;
 import com.example.pos.exception.GlobalExceptionHandler;
+import com.example.pos.service.CatalogRepresentation;
 import com.example.pos.service.ItemService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
@@ -11,14 +13,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -28,6 +33,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -71,16 +78,102 @@ class ItemControllerTest {
             )
         );
 
-        when(itemService.listActive()).thenReturn(items);
+        CatalogRepresentation catalog = CatalogRepresentation.of("active", 7, objectMapper.writeValueAsBytes(items));
+        when(itemService.catalogRepresentation(false)).thenReturn(catalog);
 
         mockMvc.perform(get("/api/items"))
             .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, catalog.etag()))
             .andExpect(jsonPath("$[0].id").value("aaaaaaaa-aaaa-aaaa-aaaa-aaaaaaaaaaaa"))
             .andExpect(jsonPath("$[0].name").value("Espresso"))
             .andExpect(jsonPath("$[1].id").value("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"))
             .andExpect(jsonPath("$[1].category").value("Food"));
     }
 
+    @Test
+    void listItems_withMatchingEtag_returnsNotModified() throws Exception {
+        CatalogRepresentation catalog = CatalogRepresentation.of("all", 3, "[]".getBytes(StandardCharsets.UTF_8));
+        when(itemService.catalogRepresentation(true)).thenReturn(catalog);
+
+        mockMvc.perform(get("/api/items")
+                .queryParam("includeInactive", "true")
+                .header(HttpHeaders.IF_NONE_MATCH, catalog.etag()))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, catalog.etag()))
+            .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void listItems_acceptingGzip_returnsCompressedBody() throws Exception {
+        CatalogRepresentation catalog = CatalogRepresentation.of("active", 4, "[]".getBytes(StandardCharsets.UTF_8));
+        when(itemService.catalogRepresentation(false)).thenReturn(catalog);
+
+        mockMvc.perform(get("/api/items")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.ETAG, catalog.gzipEtag()))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andExpect(content().bytes(catalog.gzip()));
+    }
+
+    @Test
+    void listItems_gzipRefusedByQValue_returnsIdentityBody() throws Exception {
+        CatalogRepresentation catalog = CatalogRepresentation.of("active", 4, "[]".getBytes(StandardCharsets.UTF_8));
+        when(itemService.catalogRepresentation(false)).thenReturn(catalog);
+
+        mockMvc.perform(get("/api/items")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *;q=0.5"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(header().string(HttpHeaders.ETAG, catalog.etag()))
+            .andExpect(content().bytes(catalog.json()));
+    }
+
+    @Test
+    void listItems_identityEtag_doesNotRevalidateGzipBody() throws Exception {
+        CatalogRepresentation catalog = CatalogRepresentation.of("active", 4, "[]".getBytes(StandardCharsets.UTF_8));
+        when(itemService.catalogRepresentation(false)).thenReturn(catalog);
+
+        mockMvc.perform(get("/api/items")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, catalog.etag()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, catalog.gzipEtag()));
+    }
+
+    @Test
+    void acceptsGzip_honoursQValues() {
+        assertThat(ItemController.acceptsGzip("gzip, deflate")).isTrue();
+        assertThat(ItemController.acceptsGzip("deflate, GZIP;q=0.3")).isTrue();
+        assertThat(ItemController.acceptsGzip("*")).isTrue();
+        assertThat(ItemController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ItemController.acceptsGzip("gzip; q=0.000, *")).isFalse();
+        assertThat(ItemController.acceptsGzip("identity, *;q=0")).isFalse();
+        assertThat(ItemController.acceptsGzip("br")).isFalse();
+        assertThat(ItemController.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    void catalogStats_returnsCounters() throws Exception {
+        when(itemService.catalogStats()).thenReturn(new CatalogStats(
+            5,
+            120,
+            1,
+            1,
+            42,
+            Instant.parse("2024-05-01T08:00:00Z")
+        ));
+
+        mockMvc.perform(get("/api/items/catalog/stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(5))
+            .andExpect(jsonPath("$.hits").value(120))
+            .andExpect(jsonPath("$.misses").value(1))
+            .andExpect(jsonPath("$.rebuilds").value(1))
+            .andExpect(jsonPath("$.itemCount").value(42));
+    }
+
     @Test
     void createItem_returnsCreated() throws Exception {
         UUID id = UUID.fromString("cccccccc-cccc-cccc-cccc-cccccccccccc");
@@ -137,6 +230,25 @@ class ItemControllerTest {
             .andExpect(jsonPath("$.path").value("/api/items"));
     }
 
+    @Test
+    void createItem_withFractionalPaisa_returnsBadRequest() throws Exception {
+        String payload = """
+            {
+              "name": "Latte",
+              "price": 4.555,
+              "category": "Beverage",
+              "itemCode": "LAT-001",
+              "pctCode": "98211000"
+            }
+            """;
+
+        mockMvc.perform(post("/api/items")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("price must be in whole paisa"));
+    }
+
     @Test
     void updateItem_returnsOk() throws Exception {
         UUID id = UUID.fromString("dddddddd-dddd-dddd-dddd-dddddddddddd");
@@ -1,33 +1,56 @@
 package com.example.pos.controller;
 
+import com.example.pos.dto.OrderItemChange;
 import com.example.pos.dto.OrderItemRequest;
 import com.example.pos.dto.OrderItemResponse;
+import com.example.pos.dto.OrderPageResponse;
 import com.example.pos.dto.OrderResponse;
+import com.example.pos.entity.FiscalStatus;
 import com.example.pos.entity.OrderStatus;
+import com.example.pos.exception.ConflictException;
 import com.example.pos.exception.GlobalExceptionHandler;
+import com.example.pos.service.CartSessionCache;
+import com.example.pos.service.CheckoutGuard;
+import com.example.pos.service.OrderEventStream;
 import com.example.pos.service.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(OrderController.class)
@@ -43,6 +66,15 @@ class OrderControllerTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private CheckoutGuard checkoutGuard;
+
+    @MockBean
+    private CartSessionCache cartSessions;
+
+    @MockBean
+    private OrderEventStream eventStream;
+
     @Test
     void createOrder_returnsCreated() throws Exception {
         UUID orderId = UUID.fromString("11111111-1111-1111-1111-111111111111");
@@ -52,6 +84,7 @@ class OrderControllerTest {
             null,
             null,
             null,
+            null,
             BigDecimal.ZERO,
             BigDecimal.ZERO,
             BigDecimal.ZERO,
@@ -78,6 +111,50 @@ class OrderControllerTest {
             .andExpect(jsonPath("$.status").value("DRAFT"));
     }
 
+    @Test
+    void listOrdersPage_returnsItemsAndNextCursor() throws Exception {
+        OrderResponse first = paidOrder(UUID.fromString("12121212-1212-1212-1212-121212121212"), "INV-20240506-0001");
+        when(orderService.listOrdersPage(eq(OrderStatus.PAID), eq(LocalDate.parse("2024-05-01")),
+                eq(LocalDate.parse("2024-05-31")), eq("abc"), eq(1)))
+            .thenReturn(new OrderPageResponse(List.of(first), "def"));
+
+        mockMvc.perform(get("/api/orders/page")
+                .queryParam("status", "PAID")
+                .queryParam("from", "2024-05-01")
+                .queryParam("to", "2024-05-31")
+                .queryParam("cursor", "abc")
+                .queryParam("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].invoiceNumber").value("INV-20240506-0001"))
+            .andExpect(jsonPath("$.nextCursor").value("def"));
+    }
+
+    @Test
+    void exportOrders_streamsNdjsonAcrossPages() throws Exception {
+        OrderResponse first = paidOrder(UUID.fromString("13131313-1313-1313-1313-131313131313"), "INV-20240506-0002");
+        OrderResponse second = paidOrder(UUID.fromString("14141414-1414-1414-1414-141414141414"), "INV-20240506-0003");
+        when(orderService.listOrdersPage(any(), any(), any(), isNull(), anyInt()))
+            .thenReturn(new OrderPageResponse(List.of(first), "next"));
+        when(orderService.listOrdersPage(any(), any(), any(), eq("next"), anyInt()))
+            .thenReturn(new OrderPageResponse(List.of(second), null));
+
+        MvcResult result = mockMvc.perform(get("/api/orders/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", containsString("application/x-ndjson")))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("invoiceNumber").asText()).isEqualTo("INV-20240506-0002");
+        assertThat(objectMapper.readTree(lines[1]).get("invoiceNumber").asText()).isEqualTo("INV-20240506-0003");
+    }
+
     @Test
     void getOrder_returnsOrder() throws Exception {
         UUID orderId = UUID.fromString("22222222-2222-2222-2222-222222222222");
@@ -95,6 +172,7 @@ class OrderControllerTest {
             "FISC-123",
             "PRA|FISC-123|INV-1",
             "https://pra.gov/verify/FISC-123",
+            FiscalStatus.FISCALIZED,
             new BigDecimal("6.00"),
             BigDecimal.ZERO,
             new BigDecimal("6.00"),
@@ -151,6 +229,7 @@ class OrderControllerTest {
             null,
             null,
             null,
+            null,
             new BigDecimal("2.50"),
             BigDecimal.ZERO,
             new BigDecimal("2.50"),
@@ -169,7 +248,7 @@ class OrderControllerTest {
             List.of(item)
         );
 
-        when(orderService.addOrUpdateItem(eq(orderId), any(OrderItemRequest.class)))
+        when(cartSessions.setQuantity(orderId, UUID.fromString("88888888-8888-8888-8888-888888888888"), 1))
             .thenReturn(response);
 
         OrderItemRequest request = new OrderItemRequest(
@@ -204,10 +283,124 @@ class OrderControllerTest {
             .andExpect(jsonPath("$.path").value("/api/orders/" + orderId + "/items"));
     }
 
+    @Test
+    void applyItemChanges_passesWholeDeltaToCart() throws Exception {
+        UUID orderId = UUID.fromString("12121212-1212-1212-1212-121212121212");
+        UUID bagel = UUID.fromString("88888888-8888-8888-8888-888888888888");
+        UUID muffin = UUID.fromString("89898989-8989-8989-8989-898989898989");
+        when(cartSessions.applyChanges(eq(orderId), any()))
+            .thenReturn(paidOrder(orderId, "INV-20240505-BATCH001"));
+        String payload = """
+            {
+              "items": [
+                {"itemId": "88888888-8888-8888-8888-888888888888", "quantity": 3},
+                {"itemId": "89898989-8989-8989-8989-898989898989", "quantity": 0}
+              ]
+            }
+            """;
+
+        mockMvc.perform(post("/api/orders/{id}/items:batch", orderId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.invoiceNumber").value("INV-20240505-BATCH001"));
+
+        verify(cartSessions).applyChanges(orderId, List.of(
+            new OrderItemChange(bagel, 3),
+            new OrderItemChange(muffin, 0)
+        ));
+    }
+
+    @Test
+    void applyItemChanges_withNegativeQuantity_returnsBadRequest() throws Exception {
+        UUID orderId = UUID.fromString("13131313-1313-1313-1313-131313131313");
+        String payload = """
+            {
+              "items": [
+                {"itemId": "88888888-8888-8888-8888-888888888888", "quantity": -1}
+              ]
+            }
+            """;
+
+        mockMvc.perform(post("/api/orders/{id}/items:batch", orderId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.status").value(400));
+
+        verifyNoInteractions(cartSessions);
+    }
+
+    @Test
+    void adjustItem_appliesDeltaToCart() throws Exception {
+        UUID orderId = UUID.fromString("14141414-1414-1414-1414-141414141414");
+        UUID bagel = UUID.fromString("77777777-7777-7777-7777-777777777777");
+        when(cartSessions.adjust(orderId, bagel, -2)).thenReturn(paidOrder(orderId, "INV-20240505-DELTA001"));
+
+        mockMvc.perform(post("/api/orders/{id}/items:adjust", orderId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"itemId\": \"" + bagel + "\", \"delta\": -2}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.invoiceNumber").value("INV-20240505-DELTA001"));
+
+        verify(cartSessions).adjust(orderId, bagel, -2);
+    }
+
+    @Test
+    void addItem_whenOrderChangedConcurrently_returnsConflict() throws Exception {
+        UUID orderId = UUID.fromString("15151515-1515-1515-1515-151515151515");
+        UUID bagel = UUID.fromString("77777777-7777-7777-7777-777777777777");
+        when(cartSessions.setQuantity(orderId, bagel, 2))
+            .thenThrow(new ObjectOptimisticLockingFailureException("Order", orderId));
+
+        mockMvc.perform(post("/api/orders/{id}/items", orderId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"itemId\": \"" + bagel + "\", \"quantity\": 2}"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.status").value(409));
+    }
+
+    @Test
+    void checkout_returnsPaidOrderPendingFiscalization() throws Exception {
+        UUID orderId = UUID.fromString("bbbbbbbb-1111-1111-1111-111111111111");
+        OrderResponse response = new OrderResponse(
+            orderId,
+            "INV-20240505-DDDD4444",
+            null,
+            null,
+            null,
+            FiscalStatus.PENDING,
+            new BigDecimal("10.00"),
+            new BigDecimal("1.60"),
+            new BigDecimal("11.60"),
+            OrderStatus.PAID,
+            "CASH",
+            new BigDecimal("0.16"),
+            new BigDecimal("1.60"),
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            BigDecimal.ZERO,
+            Instant.parse("2024-05-05T12:00:00Z"),
+            List.of()
+        );
+
+        when(checkoutGuard.checkout(orderId, null)).thenReturn(response);
+
+        mockMvc.perform(post("/api/orders/{id}/checkout", orderId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("PAID"))
+            .andExpect(jsonPath("$.fiscalStatus").value("PENDING"))
+            .andExpect(jsonPath("$.fiscalInvoiceNumber").isEmpty());
+    }
+
     @Test
     void checkout_withIllegalArgument_returnsBadRequest() throws Exception {
         UUID orderId = UUID.fromString("aaaaaaaa-1111-1111-1111-111111111111");
-        when(orderService.checkout(orderId))
+        when(checkoutGuard.checkout(orderId, null))
             .thenThrow(new IllegalArgumentException("Only DRAFT orders can be checked out"));
 
         mockMvc.perform(post("/api/orders/{id}/checkout", orderId))
@@ -215,4 +408,96 @@ class OrderControllerTest {
             .andExpect(jsonPath("$.message").value("Only DRAFT orders can be checked out"))
             .andExpect(jsonPath("$.path").value("/api/orders/" + orderId + "/checkout"));
     }
+
+    @Test
+    void checkout_withIdempotencyKey_passesKeyThrough() throws Exception {
+        UUID orderId = UUID.fromString("cccccccc-1111-1111-1111-111111111111");
+        when(checkoutGuard.checkout(orderId, "terminal-2-attempt-1"))
+            .thenReturn(paidOrder(orderId, "INV-20240505-EEEE5555"));
+
+        mockMvc.perform(post("/api/orders/{id}/checkout", orderId)
+                .header("Idempotency-Key", "terminal-2-attempt-1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.invoiceNumber").value("INV-20240505-EEEE5555"));
+
+        verify(checkoutGuard).checkout(orderId, "terminal-2-attempt-1");
+    }
+
+    @Test
+    void checkout_withConflictingKey_returnsConflict() throws Exception {
+        UUID orderId = UUID.fromString("dddddddd-1111-1111-1111-111111111111");
+        when(checkoutGuard.checkout(orderId, "other-key"))
+            .thenThrow(new ConflictException("Order was already checked out by another request"));
+
+        mockMvc.perform(post("/api/orders/{id}/checkout", orderId)
+                .header("Idempotency-Key", "other-key"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.message").value("Order was already checked out by another request"));
+    }
+
+    @Test
+    void getOrder_withOpenCart_returnsCartWithoutLoading() throws Exception {
+        UUID orderId = UUID.fromString("16161616-1616-1616-1616-161616161616");
+        when(cartSessions.find(orderId)).thenReturn(Optional.of(paidOrder(orderId, "INV-20240505-CART0001")));
+
+        mockMvc.perform(get("/api/orders/{id}", orderId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.invoiceNumber").value("INV-20240505-CART0001"));
+
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void cancel_runsWhileCartEditsAreClosed() throws Exception {
+        UUID orderId = UUID.fromString("17171717-1717-1717-1717-171717171717");
+        when(cartSessions.whileClosing(eq(orderId), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(orderService.cancelOrder(orderId)).thenReturn(paidOrder(orderId, "INV-20240505-CANCEL01"));
+
+        mockMvc.perform(post("/api/orders/{id}/cancel", orderId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.invoiceNumber").value("INV-20240505-CANCEL01"));
+
+        InOrder inOrder = inOrder(cartSessions, orderService);
+        inOrder.verify(cartSessions).whileClosing(eq(orderId), any());
+        inOrder.verify(orderService).cancelOrder(orderId);
+    }
+
+    @Test
+    void events_resumeFromLastEventIdHeader() throws Exception {
+        when(eventStream.subscribe(41L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/orders/events").header("Last-Event-ID", "41").queryParam("lastEventId", "7"))
+            .andExpect(request().asyncStarted());
+
+        verify(eventStream).subscribe(41L);
+        verifyNoInteractions(orderService);
+    }
+
+    private OrderResponse paidOrder(UUID id, String invoiceNumber) {
+        return new OrderResponse(
+            id,
+            invoiceNumber,
+            null,
+            null,
+            null,
+            FiscalStatus.PENDING,
+            new BigDecimal("10.00"),
+            new BigDecimal("1.60"),
+            new BigDecimal("11.60"),
+            OrderStatus.PAID,
+            "CASH",
+            new BigDecimal("0.16"),
+            new BigDecimal("1.60"),
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            BigDecimal.ZERO,
+            Instant.parse("2024-05-06T12:00:00Z"),
+            List.of()
+        );
+    }
 }
@@ -1,6 +1,9 @@
 package com.example.pos.controller;
 
+import com.example.pos.dto.DailySalesConsistencyResponse;
 import com.example.pos.dto.DailySalesReportResponse;
+import com.example.pos.dto.SalesGranularity;
+import com.example.pos.dto.SalesReportResponse;
 import com.example.pos.service.ReportService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,11 +14,13 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -48,6 +53,79 @@ class ReportControllerTest {
             .andExpect(jsonPath("$.totalSales").value(42.50));
     }
 
+    @Test
+    void sales_returnsRangeReport() throws Exception {
+        LocalDate from = LocalDate.parse("2024-05-01");
+        LocalDate to = LocalDate.parse("2024-05-31");
+        SalesReportResponse response = new SalesReportResponse(
+            from,
+            to,
+            SalesGranularity.WEEK,
+            new SalesReportResponse.Totals(
+                12,
+                new BigDecimal("1200.00"),
+                new BigDecimal("50.00"),
+                new BigDecimal("184.00"),
+                new BigDecimal("1334.00")
+            ),
+            List.of(new SalesReportResponse.Bucket(
+                "2024-04-29",
+                12,
+                new BigDecimal("1200.00"),
+                new BigDecimal("50.00"),
+                new BigDecimal("184.00"),
+                new BigDecimal("1334.00")
+            )),
+            List.of(new SalesReportResponse.PaymentModeSales("CASH", 12, new BigDecimal("184.00"), new BigDecimal("1334.00"))),
+            List.of(new SalesReportResponse.CategorySales("Steaks", 4, new BigDecimal("3000.00"))),
+            List.of(new SalesReportResponse.ItemSales("STK-002", "Chicken Tarragon Steak", "Steaks", 3, new BigDecimal("2400.00")))
+        );
+
+        when(reportService.sales(eq(from), eq(to), eq(SalesGranularity.WEEK), eq(5))).thenReturn(response);
+
+        mockMvc.perform(get("/api/reports/sales")
+                .queryParam("from", "2024-05-01")
+                .queryParam("to", "2024-05-31")
+                .queryParam("granularity", "WEEK")
+                .queryParam("top", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.granularity").value("WEEK"))
+            .andExpect(jsonPath("$.totals.orderCount").value(12))
+            .andExpect(jsonPath("$.buckets[0].period").value("2024-04-29"))
+            .andExpect(jsonPath("$.byPaymentMode[0].paymentMode").value("CASH"))
+            .andExpect(jsonPath("$.byCategory[0].category").value("Steaks"))
+            .andExpect(jsonPath("$.topItems[0].itemCode").value("STK-002"));
+    }
+
+    @Test
+    void dailySalesConsistency_returnsComparison() throws Exception {
+        LocalDate date = LocalDate.parse("2024-05-06");
+        when(reportService.checkConsistency(eq(date))).thenReturn(new DailySalesConsistencyResponse(
+            date,
+            3,
+            new BigDecimal("42.50"),
+            3,
+            new BigDecimal("42.50"),
+            true
+        ));
+
+        mockMvc.perform(get("/api/reports/daily-sales/consistency")
+                .queryParam("date", "2024-05-06"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rollupOrderCount").value(3))
+            .andExpect(jsonPath("$.scannedTotalSales").value(42.50))
+            .andExpect(jsonPath("$.consistent").value(true));
+    }
+
+    @Test
+    void rebuildDailySalesRollup_returnsProcessedCount() throws Exception {
+        when(reportService.rebuildDailySalesRollup()).thenReturn(67);
+
+        mockMvc.perform(post("/api/reports/daily-sales/rollup/rebuild"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ordersProcessed").value(67));
+    }
+
     @Test
     void dailySales_missingDate_returnsServerError() throws Exception {
         mockMvc.perform(get("/api/reports/daily-sales"))
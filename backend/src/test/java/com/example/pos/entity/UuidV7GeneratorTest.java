@@ -0,0 +1,41 @@
+package com.example.pos.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void next_setsVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertThat(millis).isBetween(before, after + 100);
+    }
+
+    @Test
+    void next_isStrictlyIncreasingInByteOrder() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(UuidV7Generator.next());
+        }
+
+        for (int i = 1; i < ids.size(); i++) {
+            // SQLite compares BLOB keys with memcmp, i.e. as unsigned big-endian bytes
+            assertThat(Long.compareUnsigned(
+                ids.get(i).getMostSignificantBits(), ids.get(i - 1).getMostSignificantBits()))
+                .isPositive();
+        }
+        assertThat(new HashSet<>(ids)).hasSize(ids.size());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.pos.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void atRateMatchesBigDecimalHalfUpForRandomAmounts() {
+        Random random = new Random(20240505);
+        for (int i = 0; i < 200_000; i++) {
+            long paisa = random.nextLong() % 10_000_000_000L;
+            long basisPoints = random.nextInt(20_001);
+            BigDecimal expected = BigDecimal.valueOf(paisa, 2)
+                .multiply(BigDecimal.valueOf(basisPoints, 4))
+                .setScale(2, RoundingMode.HALF_UP);
+
+            assertThat(Money.ofPaisa(paisa).atRate(basisPoints).toBigDecimal())
+                .as("%d paisa at %d bp", paisa, basisPoints)
+                .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void tiesRoundAwayFromZero() {
+        assertThat(Money.divHalfUp(5, 10)).isEqualTo(1);
+        assertThat(Money.divHalfUp(-5, 10)).isEqualTo(-1);
+        assertThat(Money.divHalfUp(4, 10)).isEqualTo(0);
+        assertThat(Money.divHalfUp(-4, 10)).isEqualTo(0);
+        assertThat(Money.divHalfUp(15, -10)).isEqualTo(-2);
+    }
+
+    @Test
+    void mulDivFallsBackToExactMathOnOverflow() {
+        long a = 9_000_000_000_000L;
+        long b = 7_777_777_777L;
+        BigDecimal expected = new BigDecimal(a).multiply(new BigDecimal(b))
+            .divide(new BigDecimal(10_000_000_000L), 0, RoundingMode.HALF_UP);
+
+        assertThat(Money.mulDivHalfUp(a, b, 10_000_000_000L)).isEqualTo(expected.longValueExact());
+    }
+
+    @Test
+    void conversionIsExactOrRejected() {
+        assertThat(Money.of(new BigDecimal("700")).paisa()).isEqualTo(70_000);
+        assertThat(Money.of(new BigDecimal("4.50")).toBigDecimal()).isEqualTo(new BigDecimal("4.50"));
+        assertThat(Money.of(null)).isEqualTo(Money.ZERO);
+        assertThat(Money.basisPoints(BigDecimal.valueOf(0.16))).isEqualTo(1600);
+
+        assertThatThrownBy(() -> Money.of(new BigDecimal("4.555")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.basisPoints(new BigDecimal("0.12345")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void arithmeticOverflowThrows() {
+        assertThatThrownBy(() -> Money.ofPaisa(Long.MAX_VALUE).plus(Money.ofPaisa(1)))
+            .isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.pos.money;
+
+import com.example.pos.entity.Item;
+import com.example.pos.entity.Order;
+import com.example.pos.entity.OrderItem;
+import com.example.pos.entity.OrderStatus;
+import com.example.pos.entity.PaymentMode;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Detached orders with random prices, quantities and discounts for the money
+ * property tests. Whole-rupee prices come with scale 0, as SQLite returns them,
+ * and discounts sometimes exceed the subtotal. The running subtotal matches
+ * the lines, as on a stored order.
+ */
+public final class RandomOrders {
+    private static final PaymentMode[] MODES = {PaymentMode.CASH, PaymentMode.CARD, null};
+
+    private RandomOrders() {
+    }
+
+    public static Order next(Random random) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setInvoiceNumber("INV-20240505-T01-000001");
+        order.setStatus(OrderStatus.DRAFT);
+        order.setPaymentMode(MODES[random.nextInt(MODES.length)]);
+        ReflectionTestUtils.setField(order, "createdAt", Instant.parse("2024-05-05T10:15:30Z"));
+
+        long subtotalPaisa = 0;
+        int lines = 1 + random.nextInt(random.nextBoolean() ? 5 : 40);
+        for (int i = 0; i < lines; i++) {
+            BigDecimal price = amount(random, 1 + random.nextInt(random.nextBoolean() ? 100_000 : 2_000_000));
+            Item item = new Item();
+            item.setId(UUID.randomUUID());
+            item.setName("Item " + i);
+            item.setPrice(price);
+            item.setItemCode("ITEM-" + i);
+            item.setPctCode(random.nextInt(4) == 0 ? "00000000" : "98211000");
+
+            OrderItem line = new OrderItem();
+            line.setOrder(order);
+            line.setItem(item);
+            line.setQuantity(1 + random.nextInt(random.nextBoolean() ? 3 : 50));
+            line.setUnitPrice(price);
+            line.setLineTotal(price.multiply(BigDecimal.valueOf(line.getQuantity())));
+            order.getItems().add(line);
+            subtotalPaisa += price.movePointRight(2).longValueExact() * line.getQuantity();
+        }
+        order.setSubtotal(BigDecimal.valueOf(subtotalPaisa, 2));
+
+        switch (random.nextInt(4)) {
+            case 0 -> order.setDiscount(null);
+            case 1 -> order.setDiscount(BigDecimal.ZERO);
+            case 2 -> order.setDiscount(amount(random, 1 + (long) (random.nextDouble() * subtotalPaisa * 1.2)));
+            default -> order.setDiscount(amount(random, 1 + random.nextInt(5_000)));
+        }
+        return order;
+    }
+
+    private static BigDecimal amount(Random random, long paisa) {
+        if (paisa % 100 == 0 && random.nextBoolean()) {
+            return BigDecimal.valueOf(paisa / 100);
+        }
+        return BigDecimal.valueOf(paisa, 2);
+    }
+}
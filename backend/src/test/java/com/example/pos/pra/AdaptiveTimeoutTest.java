@@ -0,0 +1,51 @@
+package com.example.pos.pra;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveTimeoutTest {
+
+    private final AdaptiveTimeout timeout = new AdaptiveTimeout(Duration.ofSeconds(2), Duration.ofSeconds(30));
+
+    @Test
+    void current_usesMaximumUntilEnoughSamples() {
+        for (int i = 0; i < AdaptiveTimeout.MIN_SAMPLES - 1; i++) {
+            timeout.record(Duration.ofMillis(100));
+        }
+
+        assertThat(timeout.current()).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void current_tracksP95WithinBounds() {
+        for (int i = 0; i < AdaptiveTimeout.WINDOW; i++) {
+            timeout.record(Duration.ofMillis(i < 60 ? 1000 : 2000));
+        }
+
+        assertThat(timeout.current()).isEqualTo(Duration.ofSeconds(6));
+    }
+
+    @Test
+    void current_isClampedToMinimumForFastCalls() {
+        for (int i = 0; i < AdaptiveTimeout.WINDOW; i++) {
+            timeout.record(Duration.ofMillis(50));
+        }
+
+        assertThat(timeout.current()).isEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void current_forgetsSamplesOutsideTheWindow() {
+        for (int i = 0; i < AdaptiveTimeout.WINDOW; i++) {
+            timeout.record(Duration.ofSeconds(20));
+        }
+        for (int i = 0; i < AdaptiveTimeout.WINDOW; i++) {
+            timeout.record(Duration.ofMillis(1000));
+        }
+
+        assertThat(timeout.current()).isEqualTo(Duration.ofSeconds(3));
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.pos.pra;
+
+import com.example.pos.pra.dto.PraBatchItemResult;
+import com.example.pos.pra.dto.PraFiscalizationResult;
+import com.example.pos.pra.dto.PraInvoiceModel;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the real cloud client against a local stub of the IMS endpoint that
+ * answers after a fixed delay, fails every invoice whose USIN ends in 7 and
+ * rejects every invoice whose USIN starts with BAD as a bad request.
+ */
+class CloudPraFiscalizationClientTest {
+    private static final int LATENCY_MS = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private PraProperties props;
+    private CloudPraFiscalizationClient client;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/PostData", exchange -> {
+            int concurrent = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(concurrent, Math::max);
+            try {
+                JsonNode invoice = objectMapper.readTree(exchange.getRequestBody());
+                String usin = invoice.get("USIN").asText();
+                Thread.sleep(LATENCY_MS);
+                byte[] body;
+                int status;
+                if (usin.startsWith("BAD")) {
+                    status = 400;
+                    body = "{\"Code\":\"400\",\"Response\":\"Invalid NTN\"}".getBytes(StandardCharsets.UTF_8);
+                } else if (usin.endsWith("7")) {
+                    status = 500;
+                    body = "{\"Code\":\"500\",\"Response\":\"Internal error\"}".getBytes(StandardCharsets.UTF_8);
+                } else {
+                    status = 200;
+                    body = ("{\"InvoiceNumber\":\"FISC-" + usin + "\",\"Code\":\"100\",\"Response\":\"OK\"}")
+                        .getBytes(StandardCharsets.UTF_8);
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        props = new PraProperties();
+        props.setEnvironment("sandbox");
+        props.setSandboxUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/PostData");
+        props.setSandboxToken("test-token");
+        props.setBatchConcurrency(3);
+        props.setBatchRatePerSecond(1000);
+        // 10% injected errors must not trip the breaker in this test
+        props.setCircuitFailureRateThreshold(90);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        client = new CloudPraFiscalizationClient(props, new RestTemplateBuilder(), objectMapper,
+            meterRegistry, new PraAuditLog(props, meterRegistry));
+    }
+
+    @AfterEach
+    void stopStub() throws Exception {
+        client.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void fiscalizeAll_reportsEveryInvoiceInInputOrder() {
+        List<PraInvoiceModel> invoices = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            invoices.add(invoice("INV-" + i));
+        }
+
+        long started = System.nanoTime();
+        List<PraBatchItemResult> results = client.fiscalizeAll(invoices);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(results).extracting(PraBatchItemResult::usin)
+            .containsExactlyElementsOf(invoices.stream().map(PraInvoiceModel::usin).toList());
+        for (PraBatchItemResult item : results) {
+            if (item.usin().endsWith("7")) {
+                assertThat(item.result().success()).isFalse();
+                assertThat(item.result().message()).contains("500");
+            } else {
+                assertThat(item.result().success()).isTrue();
+                assertThat(item.result().fiscalInvoiceNumber()).isEqualTo("FISC-" + item.usin());
+            }
+        }
+        assertThat(maxInFlight.get()).isBetween(2, props.getBatchConcurrency());
+        // Sequential submission would need 30 x 100 ms
+        assertThat(elapsedMs).isLessThan(30L * LATENCY_MS);
+    }
+
+    @Test
+    void fiscalizeAll_paceIsLimitedByRate() throws Exception {
+        props.setBatchRatePerSecond(5);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CloudPraFiscalizationClient paced = new CloudPraFiscalizationClient(props, new RestTemplateBuilder(),
+            objectMapper, meterRegistry, new PraAuditLog(props, meterRegistry));
+        List<PraInvoiceModel> invoices = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            invoices.add(invoice("RATE-" + i));
+        }
+
+        long started = System.nanoTime();
+        List<PraBatchItemResult> results;
+        try {
+            results = paced.fiscalizeAll(invoices);
+        } finally {
+            paced.close();
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(results).hasSize(10);
+        // 10 invoices at 5 per second span at least one refresh period
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(900);
+    }
+
+    @Test
+    void fiscalize_clientErrorIsAFailedResultNotAnOutage() {
+        PraFiscalizationResult rejected = client.fiscalize(invoice("BAD-1"));
+
+        assertThat(rejected.success()).isFalse();
+        assertThat(rejected.message()).contains("400").contains("Invalid NTN");
+        assertThatThrownBy(() -> client.fiscalize(invoice("INV-7")))
+            .isInstanceOf(PraUnavailableException.class)
+            .hasMessageContaining("500");
+    }
+
+    @Test
+    void fiscalize_repeatedClientErrorsLeaveTheCircuitClosed() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(client.fiscalize(invoice("BAD-" + i)).success()).isFalse();
+        }
+        assertThat(client.health().circuitState()).isEqualTo("CLOSED");
+
+        // Server errors do count, so the same number of them opens it
+        for (int i = 0; i < 20; i++) {
+            try {
+                client.fiscalize(invoice("ERR-" + i + "7"));
+            } catch (PraUnavailableException expected) {
+                // failed or not permitted
+            }
+        }
+        assertThat(client.health().circuitState()).isEqualTo("OPEN");
+    }
+
+    private PraInvoiceModel invoice(String usin) {
+        return new PraInvoiceModel(
+            1L,
+            usin,
+            "2024-05-10 10:15:30",
+            new BigDecimal("10.00"),
+            new BigDecimal("1.60"),
+            new BigDecimal("11.60"),
+            BigDecimal.ONE,
+            1,
+            1,
+            List.of(),
+            "",
+            null,
+            null,
+            null,
+            null,
+            null,
+            BigDecimal.ZERO,
+            BigDecimal.ZERO
+        );
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.pos.pra;
 
 import com.example.pos.exception.GlobalExceptionHandler;
+import com.example.pos.pra.dto.PraBacklog;
 import com.example.pos.pra.dto.PraFiscalizationResult;
 import com.example.pos.pra.dto.PraHealth;
 import com.example.pos.pra.dto.PraInvoiceItem;
 import com.example.pos.pra.dto.PraInvoiceModel;
+import com.example.pos.service.FiscalizationOutbox;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +17,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -37,9 +40,31 @@ class PraControllerTest {
     @MockBean
     private PraFiscalizationClient fiscalizationClient;
 
+    @MockBean
+    private FiscalizationOutbox fiscalizationOutbox;
+
+    @Test
+    void backlog_returnsQueueDepthAndAge() throws Exception {
+        when(fiscalizationOutbox.backlog()).thenReturn(new PraBacklog(
+            3,
+            Instant.parse("2024-05-10T10:15:30Z"),
+            420,
+            4,
+            "PRA circuit open; fiscalization deferred",
+            "OPEN"
+        ));
+
+        mockMvc.perform(get("/api/pra/backlog"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.depth").value(3))
+            .andExpect(jsonPath("$.oldestAgeSeconds").value(420))
+            .andExpect(jsonPath("$.oldestAttempts").value(4))
+            .andExpect(jsonPath("$.circuitState").value("OPEN"));
+    }
+
 //    @Test
 //    void health_returnsStatus() throws Exception {
-//        when(fiscalizationClient.health()).thenReturn(new PraHealth("OK", "Stub client ready"));
+//        when(fiscalizationClient.health()).thenReturn(new PraHealth("OK", "Stub client ready", "CLOSED"));
 //
 //        mockMvc.perform(get("/api/pra/health"))
 //            .andExpect(status().isOk())
@@ -0,0 +1,129 @@
+package com.example.pos.pra;
+
+import com.example.pos.entity.Order;
+import com.example.pos.entity.OrderItem;
+import com.example.pos.entity.PaymentMode;
+import com.example.pos.money.RandomOrders;
+import com.example.pos.pra.dto.PraInvoiceItem;
+import com.example.pos.pra.dto.PraInvoiceModel;
+import com.example.pos.tax.TaxEngine;
+import com.example.pos.tax.TaxProperties;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The {@code Money} based mapper against the BigDecimal mapper it replaced,
+ * over random orders and GST rates. The invoices must be equal field by field,
+ * scales included, because they are what PRA receives.
+ */
+class PraInvoiceMapperPropertyTest {
+    private static final int ORDERS = 20_000;
+    private static final double[] RATES = {0.16, 0.05, 0.17, 0.175, 0.1, 0.0};
+    private static final DateTimeFormatter DATE_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.of("Asia/Karachi"));
+
+    @Test
+    void invoicesMatchBigDecimalReference() {
+        Random random = new Random(1_905);
+        PraInvoiceMapper[][] mappers = new PraInvoiceMapper[RATES.length][RATES.length];
+        for (int i = 0; i < ORDERS; i++) {
+            int cash = random.nextInt(RATES.length);
+            int card = random.nextInt(RATES.length);
+            PraProperties props = new PraProperties();
+            props.setCashGstRate(RATES[cash]);
+            props.setCardGstRate(RATES[card]);
+            if (mappers[cash][card] == null) {
+                mappers[cash][card] = new PraInvoiceMapper(props, new TaxEngine(new TaxProperties(), props));
+            }
+            PraInvoiceMapper mapper = mappers[cash][card];
+            Order order = RandomOrders.next(random);
+
+            assertThat(mapper.fromOrder(order))
+                .as("order %d discount %s", i, order.getDiscount())
+                .isEqualTo(reference(order, props));
+        }
+    }
+
+    /** The pre-Money PraInvoiceMapper arithmetic, kept verbatim as the oracle. */
+    private static PraInvoiceModel reference(Order order, PraProperties props) {
+        BigDecimal gstRate = BigDecimal.valueOf(order.getPaymentMode() == PaymentMode.CARD
+            ? props.getCardGstRate() : props.getCashGstRate());
+        BigDecimal rawTotal = order.getItems().stream()
+            .map(i -> defaultZero(i.getLineTotal()))
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal discount = defaultZero(order.getDiscount());
+
+        List<PraInvoiceItem> items = order.getItems().stream()
+            .map(item -> referenceItem(item, gstRate, discount, rawTotal, props))
+            .toList();
+
+        BigDecimal totalSale = sum(items, PraInvoiceItem::saleValue);
+        BigDecimal totalTax = sum(items, PraInvoiceItem::taxCharged);
+        BigDecimal totalQty = sum(items, PraInvoiceItem::quantity);
+        BigDecimal totalBill = totalSale.add(totalTax).max(BigDecimal.ZERO);
+
+        return new PraInvoiceModel(
+            props.getPosId(),
+            order.getInvoiceNumber(),
+            DATE_FORMAT.format(order.getCreatedAt()),
+            totalSale,
+            totalTax,
+            totalBill,
+            totalQty,
+            order.getPaymentMode() == PaymentMode.CARD ? 2 : 1,
+            props.getInvoiceType(),
+            items,
+            "",
+            null,
+            order.getCustomerName(),
+            null,
+            order.getCustomerCnic(),
+            order.getCustomerPhone(),
+            discount,
+            BigDecimal.ZERO
+        );
+    }
+
+    private static PraInvoiceItem referenceItem(OrderItem orderItem, BigDecimal gstRate, BigDecimal totalDiscount,
+                                                BigDecimal rawTotal, PraProperties props) {
+        var item = orderItem.getItem();
+        BigDecimal qty = BigDecimal.valueOf(orderItem.getQuantity());
+        BigDecimal lineTotal = defaultZero(orderItem.getLineTotal());
+
+        BigDecimal itemDiscount = BigDecimal.ZERO;
+        if (rawTotal.signum() > 0 && totalDiscount.signum() > 0) {
+            itemDiscount = lineTotal.divide(rawTotal, 10, RoundingMode.HALF_UP)
+                .multiply(totalDiscount)
+                .setScale(2, RoundingMode.HALF_UP);
+        }
+
+        BigDecimal saleValue = lineTotal.subtract(itemDiscount).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal taxRate = gstRate.multiply(new BigDecimal("100")).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal taxCharged = saleValue.multiply(gstRate).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal totalAmount = saleValue.add(taxCharged).setScale(2, RoundingMode.HALF_UP);
+
+        String pctCode = item.getPctCode();
+        if (pctCode == null || pctCode.isBlank() || "00000000".equals(pctCode)) {
+            pctCode = props.getDefaultPctCode();
+        }
+        return new PraInvoiceItem(item.getItemCode(), item.getName(), pctCode, qty, taxRate, saleValue,
+            taxCharged, totalAmount, props.getInvoiceType(), itemDiscount, BigDecimal.ZERO, null);
+    }
+
+    private static BigDecimal sum(List<PraInvoiceItem> items, Function<PraInvoiceItem, BigDecimal> getter) {
+        return items.stream().map(getter).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static BigDecimal defaultZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+}
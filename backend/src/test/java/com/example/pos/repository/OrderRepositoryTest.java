@@ -0,0 +1,118 @@
+package com.example.pos.repository;
+
+import com.example.pos.SqliteTestDatabase;
+import com.example.pos.entity.Item;
+import com.example.pos.entity.Order;
+import com.example.pos.entity.OrderItem;
+import com.example.pos.entity.OrderStatus;
+import com.example.pos.entity.PaymentMode;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderRepositoryTest extends SqliteTestDatabase {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private int invoiceSequence;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listingOrdersWithLines_usesConstantStatementCount() {
+        Item espresso = persistItem("Espresso", "ESP-001", "2.50");
+        Item muffin = persistItem("Muffin", "MUF-001", "3.25");
+
+        persistOrders(2, OrderStatus.PAID, espresso, muffin);
+        long fewOrders = statementsFor(orderRepository::findAllWithItemsByOrderByCreatedAtDesc, 2);
+
+        persistOrders(25, OrderStatus.PAID, espresso, muffin);
+        long manyOrders = statementsFor(orderRepository::findAllWithItemsByOrderByCreatedAtDesc, 27);
+
+        assertThat(fewOrders).isEqualTo(1);
+        assertThat(manyOrders).isEqualTo(fewOrders);
+    }
+
+    @Test
+    void listingOrdersByStatusWithLines_usesConstantStatementCount() {
+        Item espresso = persistItem("Espresso", "ESP-001", "2.50");
+        Item muffin = persistItem("Muffin", "MUF-001", "3.25");
+
+        persistOrders(3, OrderStatus.DRAFT, espresso, muffin);
+        long fewOrders = statementsFor(() -> orderRepository.findWithItemsByStatusOrderByCreatedAtDesc(OrderStatus.DRAFT), 3);
+
+        persistOrders(30, OrderStatus.DRAFT, espresso, muffin);
+        long manyOrders = statementsFor(() -> orderRepository.findWithItemsByStatusOrderByCreatedAtDesc(OrderStatus.DRAFT), 33);
+
+        assertThat(fewOrders).isEqualTo(1);
+        assertThat(manyOrders).isEqualTo(fewOrders);
+    }
+
+    private long statementsFor(Supplier<List<Order>> query, int expectedOrders) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<Order> orders = query.get();
+        orders.forEach(order -> order.getItems().forEach(line -> line.getItem().getName()));
+
+        assertThat(orders).hasSize(expectedOrders);
+        assertThat(orders).allSatisfy(order -> assertThat(order.getItems()).hasSize(2));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Item persistItem(String name, String itemCode, String price) {
+        Item item = new Item();
+        item.setName(name);
+        item.setPrice(new BigDecimal(price));
+        item.setCategory("Test");
+        item.setItemCode(itemCode);
+        item.setPctCode("00000000");
+        item.setActive(true);
+        return entityManager.persist(item);
+    }
+
+    private void persistOrders(int count, OrderStatus status, Item... items) {
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setStatus(status);
+            order.setPaymentMode(PaymentMode.CASH);
+            order.setInvoiceNumber("INV-TEST-" + (++invoiceSequence));
+            for (Item item : items) {
+                OrderItem line = new OrderItem();
+                line.setOrder(order);
+                line.setItem(item);
+                line.setQuantity(1);
+                line.setUnitPrice(item.getPrice());
+                line.setLineTotal(item.getPrice());
+                order.getItems().add(line);
+            }
+            entityManager.persist(order);
+        }
+    }
+}
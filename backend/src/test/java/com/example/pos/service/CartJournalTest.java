@@ -0,0 +1,93 @@
+package com.example.pos.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartJournalTest {
+    private final UUID order = UUID.randomUUID();
+    private final UUID other = UUID.randomUUID();
+    private final UUID bagel = UUID.randomUUID();
+    private final UUID muffin = UUID.randomUUID();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void unflushedDeltasSurviveAReopen() throws Exception {
+        Path file = dir.resolve("cart.journal");
+        try (CartJournal journal = new CartJournal(file, false)) {
+            journal.append(order, Map.of(bagel, 2));
+            journal.append(order, Map.of(bagel, -1, muffin, 3));
+            journal.append(other, Map.of(muffin, 1));
+            journal.markFlushed(other);
+        }
+
+        try (CartJournal reopened = new CartJournal(file, false)) {
+            assertThat(reopened.pending()).containsExactly(Map.entry(order, Map.of(bagel, 1, muffin, 3)));
+        }
+    }
+
+    @Test
+    void startedFlushKeySurvivesAReopenUntilMarked() throws Exception {
+        Path file = dir.resolve("cart.journal");
+        UUID flushKey = UUID.randomUUID();
+        try (CartJournal journal = new CartJournal(file, false)) {
+            journal.append(order, Map.of(bagel, 2));
+            journal.flushStarted(order, flushKey);
+            journal.append(other, Map.of(muffin, 1));
+            journal.flushStarted(other, UUID.randomUUID());
+            journal.markFlushed(other);
+        }
+
+        try (CartJournal reopened = new CartJournal(file, false)) {
+            assertThat(reopened.pending()).containsExactly(Map.entry(order, Map.of(bagel, 2)));
+            assertThat(reopened.startedFlush(order)).isEqualTo(flushKey);
+            assertThat(reopened.startedFlush(other)).isNull();
+            reopened.markFlushed(order);
+            assertThat(reopened.startedFlush(order)).isNull();
+        }
+    }
+
+    @Test
+    void tornTailIsCutOff() throws Exception {
+        Path file = dir.resolve("cart.journal");
+        try (CartJournal journal = new CartJournal(file, true)) {
+            journal.append(order, Map.of(bagel, 2));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[CartJournal.RECORD_BYTES / 2]));
+        }
+
+        try (CartJournal reopened = new CartJournal(file, false)) {
+            assertThat(reopened.pending()).containsExactly(Map.entry(order, Map.of(bagel, 2)));
+            assertThat(Files.size(file)).isEqualTo(CartJournal.RECORD_BYTES);
+        }
+    }
+
+    @Test
+    void fileIsTruncatedOnceEveryOrderIsFlushed() throws Exception {
+        Path file = dir.resolve("cart.journal");
+        try (CartJournal journal = new CartJournal(file, false)) {
+            journal.append(order, Map.of(bagel, 2));
+            journal.append(other, Map.of(muffin, 1));
+            journal.markFlushed(order);
+            assertThat(Files.size(file)).isEqualTo(3L * CartJournal.RECORD_BYTES);
+
+            journal.markFlushed(other);
+            assertThat(Files.size(file)).isZero();
+
+            journal.append(order, Map.of(bagel, 1));
+            assertThat(journal.pending()).containsExactly(Map.entry(order, Map.of(bagel, 1)));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.pos.service;
+
+import com.example.pos.SqliteTestDatabase;
+import com.example.pos.dto.OrderItemChange;
+import com.example.pos.dto.OrderItemResponse;
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.entity.Item;
+import com.example.pos.entity.OrderStatus;
+import com.example.pos.exception.ConflictException;
+import com.example.pos.repository.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = {"app.fiscalization.enabled=false", "app.order.verify-totals=true", "app.cart.flush-interval-ms=3600000"}
+)
+class CartSessionCacheTest extends SqliteTestDatabase {
+
+    @TempDir
+    Path journalDir;
+
+    @Autowired
+    private CartSessionCache cartSessions;
+
+    @Autowired
+    private CheckoutGuard checkoutGuard;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemDeltas itemDeltas;
+
+    @Autowired
+    private MenuCatalogCache catalogCache;
+
+    @Autowired
+    private OrderTaxes orderTaxes;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private Item burger;
+    private Item pizza;
+
+    @BeforeEach
+    void menu() {
+        List<Item> menu = itemRepository.findAll();
+        burger = menu.get(0);
+        pizza = menu.get(1);
+    }
+
+    @Test
+    void tapsStayInMemoryUntilFlushedAndMatchTheDatabasePath() {
+        UUID cartOrder = orderService.createOrder().id();
+        UUID directOrder = orderService.createOrder().id();
+
+        cartSessions.setQuantity(cartOrder, burger.getId(), 2);
+        cartSessions.adjust(cartOrder, pizza.getId(), 3);
+        cartSessions.applyChanges(cartOrder, List.of(new OrderItemChange(burger.getId(), 5)));
+        OrderResponse cart = cartSessions.adjust(cartOrder, pizza.getId(), -1);
+
+        itemDeltas.applyAll(directOrder, Map.of(burger.getId(), 5, pizza.getId(), 2));
+        OrderResponse direct = orderService.getOrder(directOrder);
+
+        assertThat(orderService.getOrder(cartOrder).items()).isEmpty();
+        assertThat(quantities(cart)).isEqualTo(quantities(direct));
+        assertThat(cart.subtotal()).isEqualByComparingTo(direct.subtotal());
+        assertThat(cart.tax()).isEqualByComparingTo(direct.tax());
+        assertThat(cart.total()).isEqualByComparingTo(direct.total());
+        assertThat(cart.gstRate()).isEqualByComparingTo(direct.gstRate());
+
+        cartSessions.flushAll();
+
+        OrderResponse flushed = orderService.getOrder(cartOrder);
+        assertThat(quantities(flushed)).isEqualTo(quantities(direct));
+        assertThat(flushed.total()).isEqualByComparingTo(direct.total());
+        assertThat(cartSessions.find(cartOrder)).hasValueSatisfying(open ->
+            assertThat(open.total()).isEqualByComparingTo(flushed.total()));
+    }
+
+    @Test
+    void checkoutWritesTheOpenCartFirst() {
+        UUID orderId = orderService.createOrder().id();
+        cartSessions.setQuantity(orderId, burger.getId(), 1);
+        cartSessions.setQuantity(orderId, pizza.getId(), 2);
+        cartSessions.remove(orderId, burger.getId());
+
+        OrderResponse paid = checkoutGuard.checkout(orderId, null);
+
+        assertThat(paid.status()).isEqualTo(OrderStatus.PAID);
+        assertThat(quantities(paid)).isEqualTo(Map.of(pizza.getId(), 2));
+        assertThat(cartSessions.find(orderId)).isEmpty();
+        assertThatThrownBy(() -> cartSessions.setQuantity(orderId, burger.getId(), 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tapsAreRejectedUntilTheClosingCallReturns() {
+        UUID orderId = orderService.createOrder().id();
+        cartSessions.setQuantity(orderId, burger.getId(), 2);
+
+        OrderResponse updated = cartSessions.whileClosing(orderId, () -> {
+            assertThatThrownBy(() -> cartSessions.setQuantity(orderId, pizza.getId(), 1))
+                .isInstanceOf(ConflictException.class);
+            return orderService.getOrder(orderId);
+        });
+
+        assertThat(quantities(updated)).isEqualTo(Map.of(burger.getId(), 2));
+        assertThat(cartSessions.find(orderId)).isEmpty();
+        OrderResponse reopened = cartSessions.setQuantity(orderId, pizza.getId(), 1);
+        assertThat(quantities(reopened)).isEqualTo(Map.of(burger.getId(), 2, pizza.getId(), 1));
+    }
+
+    @Test
+    void journaledTapsAreReplayedAfterACrash() throws IOException {
+        UUID orderId = orderService.createOrder().id();
+        String journal = journalDir.resolve("cart.journal").toString();
+
+        CartSessionCache crashed = cartCache(journal);
+        crashed.setQuantity(orderId, burger.getId(), 4);
+        crashed.adjust(orderId, pizza.getId(), 1);
+        // No flush and no close: the process died here
+        assertThat(orderService.getOrder(orderId).items()).isEmpty();
+
+        CartSessionCache restarted = cartCache(journal);
+        restarted.afterSingletonsInstantiated();
+
+        assertThat(quantities(orderService.getOrder(orderId)))
+            .isEqualTo(Map.of(burger.getId(), 4, pizza.getId(), 1));
+        assertThat(Files.size(Path.of(journal))).isZero();
+        restarted.close();
+    }
+
+    @Test
+    void flushThatCommittedJustBeforeACrashIsNotReplayedTwice() throws IOException {
+        UUID orderId = orderService.createOrder().id();
+        Path journal = journalDir.resolve("cart.journal");
+
+        // What a flush leaves behind when the process dies after the commit but before the marker
+        try (CartJournal crashed = new CartJournal(journal, false)) {
+            crashed.append(orderId, Map.of(burger.getId(), 3));
+            UUID flushKey = UUID.randomUUID();
+            crashed.flushStarted(orderId, flushKey);
+            itemDeltas.applyAll(orderId, Map.of(burger.getId(), 3), flushKey);
+        }
+
+        CartSessionCache restarted = cartCache(journal.toString());
+        restarted.afterSingletonsInstantiated();
+
+        assertThat(quantities(orderService.getOrder(orderId))).isEqualTo(Map.of(burger.getId(), 3));
+        assertThat(Files.size(journal)).isZero();
+
+        // Later taps are flushed under fresh keys and still apply
+        restarted.adjust(orderId, burger.getId(), 1);
+        restarted.evict(orderId);
+        assertThat(quantities(orderService.getOrder(orderId))).isEqualTo(Map.of(burger.getId(), 4));
+        restarted.close();
+    }
+
+    private CartSessionCache cartCache(String journal) throws IOException {
+        return new CartSessionCache(orderService, itemDeltas, catalogCache, orderTaxes, new SimpleMeterRegistry(),
+            journal, false, Duration.ofMinutes(10));
+    }
+
+    private static Map<UUID, Integer> quantities(OrderResponse order) {
+        return order.items().stream()
+            .collect(Collectors.toMap(OrderItemResponse::itemId, OrderItemResponse::quantity));
+    }
+}
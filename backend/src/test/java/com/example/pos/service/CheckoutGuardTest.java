@@ -0,0 +1,98 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.exception.ConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CheckoutGuardTest {
+    private final OrderService orderService = mock(OrderService.class);
+    private final CartSessionCache cartSessions = mock(CartSessionCache.class);
+
+    @BeforeEach
+    void runClosingWork() {
+        when(cartSessions.whileClosing(any(UUID.class), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
+    @Test
+    void concurrentCheckoutsOfOneOrderRunOneAtATime() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        OrderResponse response = mock(OrderResponse.class);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(orderService.checkout(any(UUID.class), anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return response;
+        });
+        CheckoutGuard guard = new CheckoutGuard(orderService, cartSessions, Duration.ofSeconds(5));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<OrderResponse>> attempts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    return guard.checkout(orderId, "retry-key");
+                }));
+            }
+            start.countDown();
+            for (Future<OrderResponse> attempt : attempts) {
+                assertThat(attempt.get(10, TimeUnit.SECONDS)).isSameAs(response);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(maxInFlight.get()).isEqualTo(1);
+        verify(cartSessions, times(8)).whileClosing(eq(orderId), any());
+    }
+
+    @Test
+    void checkoutStuckBehindAnotherAttemptIsAConflict() throws Exception {
+        UUID orderId = UUID.randomUUID();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.checkout(any(UUID.class), anyString())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return null;
+        });
+        CheckoutGuard guard = new CheckoutGuard(orderService, cartSessions, Duration.ofMillis(50));
+
+        Thread first = new Thread(() -> guard.checkout(orderId, "first"));
+        first.start();
+        try {
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThatThrownBy(() -> guard.checkout(orderId, "second"))
+                .isInstanceOf(ConflictException.class);
+        } finally {
+            release.countDown();
+            first.join();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.pos.service;
+
+import com.example.pos.SqliteTestDatabase;
+import com.example.pos.dto.OrderItemRequest;
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.entity.FiscalStatus;
+import com.example.pos.entity.FiscalizationOutboxEntry;
+import com.example.pos.pra.PraFiscalizationClient;
+import com.example.pos.pra.PraUnavailableException;
+import com.example.pos.pra.dto.PraFiscalizationResult;
+import com.example.pos.pra.dto.PraHealth;
+import com.example.pos.pra.dto.PraInvoiceModel;
+import com.example.pos.repository.FiscalizationOutboxRepository;
+import com.example.pos.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The outbox dispatcher against a stubbed PRA client: replay order, backoff
+ * and the fiscal fields written back to the order.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = {
+        "app.fiscalization.poll-interval-ms=3600000",
+        "app.fiscalization.initial-backoff=PT1H",
+        "app.fiscalization.replay-rate-per-second=100"
+    }
+)
+class FiscalizationOutboxTest extends SqliteTestDatabase {
+
+    @MockBean(name = "praFiscalizationClient")
+    private PraFiscalizationClient pra;
+
+    @Autowired
+    private FiscalizationOutbox outbox;
+
+    @Autowired
+    private FiscalizationOutboxRepository outboxRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @BeforeEach
+    void praIsUp() {
+        outboxRepository.deleteAll();
+        when(pra.health()).thenReturn(new PraHealth("UP", null, "CLOSED"));
+    }
+
+    @Test
+    void connectivityFailureHoldsBackNewerInvoicesUntilTheOldestGoesThrough() throws Exception {
+        OrderResponse first = paidOrder();
+        OrderResponse second = paidOrder();
+        OrderResponse third = paidOrder();
+        when(pra.fiscalize(any()))
+            .thenThrow(new PraUnavailableException("PRA unreachable"))
+            .thenAnswer(invocation -> accepted(invocation.getArgument(0)));
+
+        outbox.dispatchDue();
+        outbox.dispatchDue();
+
+        verify(pra, times(1)).fiscalize(any());
+        assertThat(outboxRepository.findByNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+            Instant.now(), PageRequest.of(0, 10))).isEmpty();
+        FiscalizationOutboxEntry failed = entryOf(first);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isEqualTo("PRA unreachable");
+        assertThat(failed.getNextAttemptAt()).isAfter(Instant.now().plus(Duration.ofMinutes(59)));
+        assertThat(entryOf(third).getNextAttemptAt()).isEqualTo(failed.getNextAttemptAt());
+
+        // The backoff has run out for the whole queue
+        for (FiscalizationOutboxEntry entry : outboxRepository.findAll()) {
+            entry.setNextAttemptAt(Instant.now().minusSeconds(1));
+            outboxRepository.save(entry);
+        }
+        outbox.dispatchDue();
+
+        ArgumentCaptor<PraInvoiceModel> sent = ArgumentCaptor.forClass(PraInvoiceModel.class);
+        verify(pra, atLeastOnce()).fiscalize(sent.capture());
+        assertThat(sent.getAllValues()).extracting(PraInvoiceModel::usin).containsExactly(
+            first.invoiceNumber(), first.invoiceNumber(), second.invoiceNumber(), third.invoiceNumber());
+        assertThat(outboxRepository.count()).isZero();
+        for (OrderResponse paid : new OrderResponse[] {first, second, third}) {
+            OrderResponse fiscalized = orderService.getOrder(paid.id());
+            assertThat(fiscalized.fiscalStatus()).isEqualTo(FiscalStatus.FISCALIZED);
+            assertThat(fiscalized.fiscalInvoiceNumber()).isEqualTo("PRA-" + paid.invoiceNumber());
+            assertThat(fiscalized.fiscalVerificationUrl()).endsWith(paid.invoiceNumber());
+        }
+    }
+
+    @Test
+    void rejectedInvoiceBacksOffAloneAndTheRestGoAhead() throws Exception {
+        OrderResponse rejected = paidOrder();
+        OrderResponse accepted = paidOrder();
+        when(pra.fiscalize(any()))
+            .thenReturn(new PraFiscalizationResult(false, null, null, null, "Invalid NTN"))
+            .thenAnswer(invocation -> accepted(invocation.getArgument(0)));
+
+        outbox.dispatchDue();
+
+        FiscalizationOutboxEntry retry = entryOf(rejected);
+        assertThat(retry.getAttempts()).isEqualTo(1);
+        assertThat(retry.getLastError()).isEqualTo("Invalid NTN");
+        assertThat(retry.getNextAttemptAt()).isAfter(Instant.now().plus(Duration.ofMinutes(59)));
+        assertThat(orderService.getOrder(rejected.id()).fiscalStatus()).isEqualTo(FiscalStatus.PENDING);
+        assertThat(orderService.getOrder(accepted.id()).fiscalStatus()).isEqualTo(FiscalStatus.FISCALIZED);
+        assertThat(outboxRepository.count()).isEqualTo(1);
+    }
+
+    // Entries replay by creation time, so keep consecutive checkouts apart
+    private OrderResponse paidOrder() throws InterruptedException {
+        UUID orderId = orderService.createOrder().id();
+        orderService.addOrUpdateItem(orderId, new OrderItemRequest(itemRepository.findAll().get(0).getId(), 1));
+        OrderResponse paid = orderService.checkout(orderId);
+        Thread.sleep(5);
+        return paid;
+    }
+
+    private FiscalizationOutboxEntry entryOf(OrderResponse order) {
+        return outboxRepository.findAll().stream()
+            .filter(entry -> entry.getOrderId().equals(order.id()))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static PraFiscalizationResult accepted(PraInvoiceModel invoice) {
+        return new PraFiscalizationResult(true, "PRA-" + invoice.usin(), "qr:" + invoice.usin(),
+            "https://verify.example/" + invoice.usin(), null);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.pos.service;
+
+import com.example.pos.SqliteTestDatabase;
+import com.example.pos.repository.InvoiceSequenceRepository;
+import com.example.pos.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = {"app.fiscalization.enabled=false", "app.order.verify-totals=true", "app.invoice.terminal-id=T07"}
+)
+class InvoiceNumberAllocatorTest extends SqliteTestDatabase {
+    private static final int THREADS = 16;
+    private static final int PER_THREAD = 125_000;
+
+    @Autowired
+    private InvoiceSequenceRepository sequenceRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void millionsOfConcurrentAllocationsAreUniqueAndGapless() throws Exception {
+        InvoiceNumberAllocator allocator = allocator("STRESS", 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<int[]>> workers = new ArrayList<>();
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    int[] issued = new int[PER_THREAD];
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        issued[i] = sequenceOf(allocator.next());
+                    }
+                    return issued;
+                }));
+            }
+            start.countDown();
+
+            BitSet seen = new BitSet();
+            long total = 0;
+            for (Future<int[]> worker : workers) {
+                for (int sequence : worker.get(5, TimeUnit.MINUTES)) {
+                    assertThat(seen.get(sequence)).as("duplicate %d", sequence).isFalse();
+                    seen.set(sequence);
+                    total++;
+                }
+            }
+            assertThat(total).isEqualTo((long) THREADS * PER_THREAD);
+            assertThat(seen.nextClearBit(1)).isEqualTo(THREADS * PER_THREAD + 1);
+        } finally {
+            executor.shutdownNow();
+            allocator.close();
+        }
+    }
+
+    @Test
+    void cleanRestartContinuesAfterLastIssuedNumber() {
+        InvoiceNumberAllocator before = allocator("RESTART", 50);
+        String last = null;
+        for (int i = 0; i < 7; i++) {
+            last = before.next();
+        }
+        before.close();
+
+        InvoiceNumberAllocator after = allocator("RESTART", 50);
+        String next = after.next();
+        after.close();
+
+        assertThat(sequenceOf(last)).isEqualTo(7);
+        assertThat(sequenceOf(next)).isEqualTo(8);
+        assertThat(next).startsWith(last.substring(0, last.lastIndexOf('-') + 1));
+    }
+
+    @Test
+    void restartAfterCrashResumesAfterLastStoredOrder() {
+        String stored = null;
+        for (int i = 0; i < 3; i++) {
+            stored = orderService.createOrder().invoiceNumber();
+        }
+        assertThat(stored).contains("-T07-");
+
+        // A second instance that never saw close() behaves like a process restarted after a crash
+        InvoiceNumberAllocator restarted = allocator("T07", 50);
+        String next = restarted.next();
+
+        assertThat(sequenceOf(next)).isEqualTo(sequenceOf(stored) + 1);
+    }
+
+    @Test
+    void cleanRestartNeverReissuesNumbersWithoutOrders() {
+        InvoiceNumberAllocator first = allocator("REISSUE", 50);
+        first.next();
+        first.close();
+        InvoiceNumberAllocator second = allocator("REISSUE", 50);
+        String issued = second.next();
+        second.close();
+
+        // Neither number is on a stored order, yet the third run must still continue after them
+        InvoiceNumberAllocator third = allocator("REISSUE", 50);
+        String next = third.next();
+        third.close();
+
+        assertThat(sequenceOf(issued)).isEqualTo(2);
+        assertThat(sequenceOf(next)).isEqualTo(3);
+    }
+
+    @Test
+    void failedFirstRefillIsReconciledAgainByTheNext() {
+        OrderRepository orders = mock(OrderRepository.class);
+        when(orders.findLastInvoiceNumber(anyString()))
+            .thenThrow(new DataAccessResourceFailureException("database is locked"))
+            .thenAnswer(invocation -> Optional.of(invocation.getArgument(0) + "000042"));
+        InvoiceNumberAllocator allocator =
+            new InvoiceNumberAllocator(sequenceRepository, orders, transactionManager, "RETRY", 50);
+
+        assertThatThrownBy(allocator::next).isInstanceOf(DataAccessResourceFailureException.class);
+        String next = allocator.next();
+        allocator.close();
+
+        // Without reconciling, the retry would start a fresh block at 1 and reissue stored numbers
+        assertThat(sequenceOf(next)).isEqualTo(43);
+    }
+
+    private InvoiceNumberAllocator allocator(String terminalId, int blockSize) {
+        return new InvoiceNumberAllocator(sequenceRepository, orderRepository, transactionManager, terminalId, blockSize);
+    }
+
+    private static int sequenceOf(String invoiceNumber) {
+        return Integer.parseInt(invoiceNumber.substring(invoiceNumber.lastIndexOf('-') + 1));
+    }
+}
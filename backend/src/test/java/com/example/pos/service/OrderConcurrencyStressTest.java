@@ -0,0 +1,219 @@
+package com.example.pos.service;
+
+import com.example.pos.SqliteTestDatabase;
+import com.example.pos.dto.OrderEventType;
+import com.example.pos.dto.OrderItemResponse;
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.entity.Item;
+import com.example.pos.repository.ItemRepository;
+import com.example.pos.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many terminals editing one order at once through the quantity-delta path.
+ * Every delta must land: the final quantities and totals are what a single
+ * terminal applying all of them in sequence would produce.
+ *
+ * <p>The single writer connection serializes the terminals' transactions, so
+ * on its own the run never trips the version check. {@link CommitInterleaver}
+ * forces the conflict: after an edit has loaded version N, it commits another
+ * terminal's version N+1 into the row before the edit flushes.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = {"app.fiscalization.enabled=false", "app.order.verify-totals=true"}
+)
+class OrderConcurrencyStressTest extends SqliteTestDatabase {
+    private static final int TERMINALS = 12;
+    private static final int ROUNDS = 25;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemDeltas itemDeltas;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CommitInterleaver interleaver;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void disarm() {
+        interleaver.disarm();
+    }
+
+    @Test
+    void concurrentDeltasOnOneOrderAllLand() throws Exception {
+        List<Item> menu = itemRepository.findAll();
+        Item burger = menu.get(0);
+        Item pizza = menu.get(1);
+        OrderResponse created = orderService.createOrder();
+        UUID orderId = created.id();
+        double retriedBefore = conflicts("retried");
+        interleaver.arm(orderId, created.invoiceNumber(), 7);
+
+        ExecutorService executor = Executors.newFixedThreadPool(TERMINALS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> terminals = new ArrayList<>();
+            for (int t = 0; t < TERMINALS; t++) {
+                terminals.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        itemDeltas.apply(orderId, burger.getId(), 2);
+                        itemDeltas.apply(orderId, pizza.getId(), 1);
+                        itemDeltas.apply(orderId, burger.getId(), -1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> terminal : terminals) {
+                terminal.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int expected = TERMINALS * ROUNDS;
+        OrderResponse order = orderService.getOrder(orderId);
+        Map<UUID, Integer> quantities = order.items().stream()
+            .collect(Collectors.toMap(OrderItemResponse::itemId, OrderItemResponse::quantity));
+        assertThat(quantities).containsOnly(
+            Map.entry(burger.getId(), expected),
+            Map.entry(pizza.getId(), expected));
+
+        BigDecimal subtotal = burger.getPrice().add(pizza.getPrice())
+            .multiply(BigDecimal.valueOf(expected))
+            .setScale(2, RoundingMode.HALF_UP);
+        BigDecimal tax = subtotal.multiply(new BigDecimal("0.16")).setScale(2, RoundingMode.HALF_UP);
+        assertThat(order.subtotal()).isEqualByComparingTo(subtotal);
+        assertThat(order.tax()).isEqualByComparingTo(tax);
+        assertThat(order.total()).isEqualByComparingTo(subtotal.add(tax));
+        assertThat(orderRepository.findById(orderId).orElseThrow().getVersion())
+            .isGreaterThanOrEqualTo((long) TERMINALS * ROUNDS * 3);
+        assertThat(interleaver.conflicts()).isPositive();
+        assertThat(conflicts("retried") - retriedBefore).isEqualTo(interleaver.conflicts());
+        assertThat(conflicts("exhausted")).isZero();
+    }
+
+    @Test
+    void editThatLoadedAnOlderVersionIsRetriedOnce() {
+        Item burger = itemRepository.findAll().get(0);
+        OrderResponse created = orderService.createOrder();
+        double retriedBefore = conflicts("retried");
+        interleaver.arm(created.id(), created.invoiceNumber(), 1);
+        interleaver.limit(1);
+
+        OrderResponse order = itemDeltas.apply(created.id(), burger.getId(), 3);
+
+        assertThat(interleaver.conflicts()).isEqualTo(1);
+        assertThat(conflicts("retried") - retriedBefore).isEqualTo(1);
+        assertThat(order.items()).singleElement().extracting(OrderItemResponse::quantity).isEqualTo(3);
+        // Created at 0, the interleaved commit at 1, the retried edit at 2
+        assertThat(orderRepository.findById(created.id()).orElseThrow().getVersion()).isEqualTo(2);
+    }
+
+    private double conflicts(String outcome) {
+        Counter counter = meterRegistry.find("pos.order.conflicts")
+            .tags("operation", "item_delta", "outcome", outcome)
+            .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    /**
+     * Listens inside the edit's transaction, after the order was loaded and
+     * changed but before the flush, and bumps the row version on the same
+     * writer connection as a concurrent terminal's commit would have.
+     */
+    @TestConfiguration
+    static class CommitInterleaverConfig {
+        @Bean
+        CommitInterleaver commitInterleaver(DataSource dataSource) {
+            return new CommitInterleaver(new JdbcTemplate(dataSource));
+        }
+    }
+
+    static class CommitInterleaver {
+        private final JdbcTemplate jdbcTemplate;
+        private final AtomicInteger edits = new AtomicInteger();
+        private final AtomicInteger conflicts = new AtomicInteger();
+        private volatile UUID orderId;
+        private volatile String invoiceNumber;
+        private volatile int every;
+        private volatile int limit = Integer.MAX_VALUE;
+
+        CommitInterleaver(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        void arm(UUID orderId, String invoiceNumber, int every) {
+            this.invoiceNumber = invoiceNumber;
+            this.every = every;
+            this.limit = Integer.MAX_VALUE;
+            edits.set(0);
+            conflicts.set(0);
+            this.orderId = orderId;
+        }
+
+        void limit(int limit) {
+            this.limit = limit;
+        }
+
+        void disarm() {
+            orderId = null;
+        }
+
+        int conflicts() {
+            return conflicts.get();
+        }
+
+        @EventListener
+        public void onOrderChanged(OrderChanged change) {
+            if (change.type() != OrderEventType.LINE_CHANGED || !change.orderId().equals(orderId)) {
+                return;
+            }
+            if (edits.incrementAndGet() % every != 0 || conflicts.get() >= limit) {
+                return;
+            }
+            int bumped = jdbcTemplate.update(
+                "UPDATE orders SET version = version + 1 WHERE invoice_number = ?", invoiceNumber);
+            assertThat(bumped).isEqualTo(1);
+            conflicts.incrementAndGet();
+        }
+    }
+}
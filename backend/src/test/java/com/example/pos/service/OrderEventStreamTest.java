@@ -0,0 +1,155 @@
+package com.example.pos.service;
+
+import com.example.pos.SqliteTestDatabase;
+import com.example.pos.dto.OrderEvent;
+import com.example.pos.dto.OrderEventType;
+import com.example.pos.dto.OrderItemRequest;
+import com.example.pos.entity.Item;
+import com.example.pos.repository.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = {"app.fiscalization.enabled=false", "app.order.verify-totals=true"}
+)
+class OrderEventStreamTest extends SqliteTestDatabase {
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Autowired
+    private OrderEventStream eventStream;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void committedChangesReachSubscribersAndRollbacksDoNot() {
+        Item burger = itemRepository.findAll().get(0);
+        CapturingEmitter screen = new CapturingEmitter(null);
+        eventStream.subscribe(null, screen);
+
+        UUID orderId = orderService.createOrder().id();
+        orderService.addOrUpdateItem(orderId, new OrderItemRequest(burger.getId(), 2));
+        assertThatThrownBy(() -> orderService.addOrUpdateItem(orderId, new OrderItemRequest(UUID.randomUUID(), 1)))
+            .isInstanceOf(EntityNotFoundException.class);
+        orderService.checkout(orderId);
+
+        await().atMost(WAIT).untilAsserted(() -> assertThat(screen.typesFor(orderId))
+            .containsExactly(OrderEventType.CREATED, OrderEventType.LINE_CHANGED, OrderEventType.CHECKED_OUT));
+        List<OrderEvent> events = screen.events;
+        for (int i = 1; i < events.size(); i++) {
+            assertThat(events.get(i).id()).isGreaterThan(events.get(i - 1).id());
+        }
+        assertThat(events.get(events.size() - 1).order().items()).hasSize(1);
+    }
+
+    @Test
+    void reconnectResumesAfterLastEventIdOrResets() {
+        OrderEventStream stream = new OrderEventStream(null, new SimpleMeterRegistry(), 4, 8, 1, Duration.ofMinutes(1));
+        CapturingEmitter first = new CapturingEmitter(null);
+        stream.subscribe(null, first);
+        for (int i = 0; i < 6; i++) {
+            stream.publish(OrderEventType.LINE_CHANGED, null);
+        }
+        await().atMost(WAIT).until(() -> first.events.size() == 6);
+        long fourth = first.events.get(3).id();
+
+        CapturingEmitter resumed = new CapturingEmitter(null);
+        stream.subscribe(fourth, resumed);
+        CapturingEmitter tooOld = new CapturingEmitter(null);
+        stream.subscribe(first.events.get(0).id(), tooOld);
+        CapturingEmitter upToDate = new CapturingEmitter(null);
+        stream.subscribe(first.events.get(5).id(), upToDate);
+        stream.publish(OrderEventType.CANCELLED, null);
+
+        await().atMost(WAIT).untilAsserted(() -> {
+            assertThat(resumed.events).extracting(OrderEvent::id)
+                .containsExactly(fourth + 1, fourth + 2, fourth + 3);
+            assertThat(tooOld.events).extracting(OrderEvent::type)
+                .containsExactly(OrderEventType.RESET, OrderEventType.CANCELLED);
+            assertThat(tooOld.events.get(0).id()).isEqualTo(fourth + 2);
+            assertThat(upToDate.events).extracting(OrderEvent::type).containsExactly(OrderEventType.CANCELLED);
+        });
+        stream.close();
+    }
+
+    @Test
+    void subscriberThatFallsBehindIsClosedWithoutStallingOthers() {
+        OrderEventStream stream = new OrderEventStream(null, new SimpleMeterRegistry(), 16, 2, 2, Duration.ofMinutes(1));
+        CountDownLatch stuck = new CountDownLatch(1);
+        CapturingEmitter slow = new CapturingEmitter(stuck);
+        CapturingEmitter fast = new CapturingEmitter(null);
+        stream.subscribe(null, slow);
+        stream.subscribe(null, fast);
+
+        for (int i = 1; i <= 6; i++) {
+            stream.publish(OrderEventType.LINE_CHANGED, null);
+            int sent = i;
+            await().atMost(WAIT).until(() -> fast.events.size() == sent);
+        }
+        assertThat(fast.completed).isFalse();
+        stuck.countDown();
+        await().atMost(WAIT).until(() -> slow.completed);
+        assertThat(slow.events.size()).isLessThan(6);
+        stream.close();
+    }
+
+    /** Records the events sent to it; with a latch, the first send waits on it like a stalled client. */
+    private static final class CapturingEmitter extends SseEmitter {
+        private final List<OrderEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch gate;
+        private volatile boolean completed;
+
+        private CapturingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (gate != null) {
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                }
+            }
+            for (DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof OrderEvent event) {
+                    events.add(event);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        private List<OrderEventType> typesFor(UUID orderId) {
+            return events.stream()
+                .filter(event -> event.order() != null && event.order().id().equals(orderId))
+                .map(OrderEvent::type)
+                .toList();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OrderItemDeltasTest {
+    private final OrderService orderService = mock(OrderService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderItemDeltas deltas = new OrderItemDeltas(orderService, meterRegistry);
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID itemId = UUID.randomUUID();
+
+    @Test
+    void conflictingDeltaIsRetriedUntilItCommits() {
+        OrderResponse response = mock(OrderResponse.class);
+        when(orderService.adjustItemQuantity(orderId, itemId, 2))
+            .thenThrow(conflict())
+            .thenThrow(conflict())
+            .thenReturn(response);
+
+        assertThat(deltas.apply(orderId, itemId, 2)).isSameAs(response);
+
+        verify(orderService, times(3)).adjustItemQuantity(orderId, itemId, 2);
+        assertThat(meterRegistry.counter("pos.order.conflicts", "operation", "item_delta", "outcome", "retried").count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void persistentConflictGivesUpAfterMaxAttempts() {
+        when(orderService.adjustItemQuantity(orderId, itemId, -1)).thenThrow(conflict());
+
+        assertThatThrownBy(() -> deltas.apply(orderId, itemId, -1))
+            .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        verify(orderService, times(OrderItemDeltas.MAX_ATTEMPTS)).adjustItemQuantity(orderId, itemId, -1);
+    }
+
+    @Test
+    void zeroDeltaIsRejected() {
+        assertThatThrownBy(() -> deltas.apply(orderId, itemId, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(orderService);
+    }
+
+    private ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException("Order", orderId);
+    }
+}
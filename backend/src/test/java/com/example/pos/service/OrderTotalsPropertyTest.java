@@ -0,0 +1,203 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.ItemResponse;
+import com.example.pos.dto.OrderItemChange;
+import com.example.pos.dto.OrderItemRequest;
+import com.example.pos.dto.OrderUpdateRequest;
+import com.example.pos.entity.Item;
+import com.example.pos.entity.Order;
+import com.example.pos.entity.OrderItem;
+import com.example.pos.entity.PaymentMode;
+import com.example.pos.money.RandomOrders;
+import com.example.pos.pra.PraInvoiceMapper;
+import com.example.pos.pra.PraProperties;
+import com.example.pos.repository.ItemRepository;
+import com.example.pos.repository.OrderRepository;
+import com.example.pos.tax.TaxEngine;
+import com.example.pos.tax.TaxProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Order totals on {@code Money} against the BigDecimal implementation they
+ * replaced, over random orders. Values and scales must both match, since they
+ * end up in JSON and on the receipt. Totals are driven through the public
+ * edit methods with {@code app.order.verify-totals} on, so the running
+ * subtotal is also checked against a full line sum on every edit.
+ */
+class OrderTotalsPropertyTest {
+    private static final int ORDERS = 20_000;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private final AtomicReference<Order> current = new AtomicReference<>();
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+
+    @BeforeEach
+    void repositoryHoldsTheCurrentOrder() {
+        when(orderRepository.findWithItemsById(any())).thenAnswer(invocation -> Optional.of(current.get()));
+        when(orderRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void totalsMatchBigDecimalReference() {
+        Random random = new Random(7_341);
+        OrderService orderService = orderService(null, catalogCache(List.of()),
+            new TaxEngine(new TaxProperties(), new PraProperties()));
+        for (int i = 0; i < ORDERS; i++) {
+            Order actual = RandomOrders.next(random);
+            Totals expected = reference(actual);
+
+            retotal(orderService, actual);
+
+            String context = "order " + i + " discount " + actual.getDiscount();
+            assertThat(actual.getSubtotal()).as(context).isEqualTo(expected.subtotal());
+            assertThat(actual.getTax()).as(context).isEqualTo(expected.tax());
+            assertThat(actual.getTotal()).as(context).isEqualTo(expected.total());
+            assertThat(actual.getGstRate()).as(context).isEqualTo(expected.gstRate());
+            assertThat(actual.getGstAmount()).as(context).isEqualTo(expected.tax());
+        }
+    }
+
+    @Test
+    void mixedRateOrdersAreTaxedLikeTheirInvoice() {
+        Random random = new Random(2_207);
+        PraProperties praProperties = new PraProperties();
+        TaxProperties taxProperties = new TaxProperties();
+        TaxProperties.Rule beverages = new TaxProperties.Rule();
+        beverages.setCategory("Beverages");
+        beverages.setRate(new BigDecimal("0.05"));
+        taxProperties.getRules().add(beverages);
+        TaxEngine taxEngine = new TaxEngine(taxProperties, praProperties);
+        PraInvoiceMapper mapper = new PraInvoiceMapper(praProperties, taxEngine);
+
+        int mixed = 0;
+        for (int i = 0; i < 2_000; i++) {
+            Order order = RandomOrders.next(random);
+            order.setPaymentMode(PaymentMode.CASH);
+            List<ItemResponse> menu = new ArrayList<>();
+            for (OrderItem line : order.getItems()) {
+                Item item = line.getItem();
+                item.setCategory(random.nextBoolean() ? "Beverages" : "Mains");
+                menu.add(ItemService.toResponse(item));
+            }
+            menu.sort(Comparator.comparing(ItemResponse::name));
+            OrderService withCatalog = orderService(null, catalogCache(menu), taxEngine);
+
+            retotal(withCatalog, order);
+
+            long categories = order.getItems().stream().map(line -> line.getItem().getCategory()).distinct().count();
+            if (categories == 1 || order.getTotal().compareTo(order.getTax()) == 0) {
+                continue;
+            }
+            mixed++;
+            String context = "order " + i + " discount " + order.getDiscount();
+            assertThat(order.getTax()).as(context).isEqualTo(mapper.fromOrder(order).totalTaxCharged());
+            assertThat(order.getGstRate()).as(context).isEqualTo(new BigDecimal("0.16"));
+        }
+        assertThat(mixed).isGreaterThan(500);
+    }
+
+    @Test
+    void runningSubtotalMatchesFullRecompute() {
+        Random random = new Random(4_519);
+        List<ItemResponse> menu = new ArrayList<>();
+        for (OrderItem line : RandomOrders.next(random).getItems()) {
+            menu.add(ItemService.toResponse(line.getItem()));
+        }
+        menu.sort(Comparator.comparing(ItemResponse::name));
+        MenuCatalogCache catalogCache = catalogCache(menu);
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        when(itemRepository.getReferenceById(any())).thenAnswer(invocation -> {
+            Item item = new Item();
+            item.setId(invocation.getArgument(0));
+            return item;
+        });
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        current.set(order);
+        // Any drift of the running subtotal fails the edit itself
+        OrderService incremental = orderService(itemRepository, catalogCache,
+            new TaxEngine(new TaxProperties(), new PraProperties()));
+
+        for (int i = 0; i < 5_000; i++) {
+            UUID itemId = menu.get(random.nextInt(menu.size())).id();
+            switch (random.nextInt(6)) {
+                case 0 -> incremental.addOrUpdateItem(order.getId(), new OrderItemRequest(itemId, 1 + random.nextInt(20)));
+                case 1 -> incremental.applyItemChanges(order.getId(), List.of(new OrderItemChange(itemId, random.nextInt(3))));
+                case 2 -> incremental.adjustItemQuantities(order.getId(), Map.of(itemId, random.nextInt(11) - 5));
+                case 3 -> {
+                    if (!order.getItems().isEmpty()) {
+                        OrderItem line = order.getItems().get(random.nextInt(order.getItems().size()));
+                        incremental.removeItem(order.getId(), line.getItem().getId());
+                    }
+                }
+                case 4 -> incremental.updateOrder(order.getId(), new OrderUpdateRequest(null, null, null, null, null, null,
+                    BigDecimal.valueOf(random.nextInt(50_000), 2), null));
+                default -> incremental.updateOrder(order.getId(), new OrderUpdateRequest(null, null, null, null, null, null,
+                    null, random.nextBoolean() ? "CASH" : "CARD"));
+            }
+
+            Totals expected = reference(order);
+            String context = "edit " + i;
+            assertThat(order.getSubtotal()).as(context).isEqualTo(expected.subtotal());
+            assertThat(order.getTax()).as(context).isEqualTo(expected.tax());
+            assertThat(order.getTotal()).as(context).isEqualTo(expected.total());
+        }
+    }
+
+    private OrderService orderService(ItemRepository itemRepository, MenuCatalogCache catalogCache, TaxEngine taxEngine) {
+        return new OrderService(orderRepository, itemRepository, catalogCache, null, null, null,
+            new OrderTaxes(taxEngine, catalogCache), event -> { }, null, new SimpleMeterRegistry(), true);
+    }
+
+    private static MenuCatalogCache catalogCache(List<ItemResponse> sortedMenu) {
+        MenuCatalogCache catalogCache = mock(MenuCatalogCache.class);
+        when(catalogCache.current()).thenReturn(new MenuCatalog(sortedMenu, 1, OBJECT_MAPPER));
+        return catalogCache;
+    }
+
+    /** An empty update, which recomputes the order's totals as any edit does. */
+    private void retotal(OrderService orderService, Order order) {
+        current.set(order);
+        orderService.updateOrder(order.getId(), new OrderUpdateRequest(null, null, null, null, null, null, null, null));
+    }
+
+    /** The pre-Money recalcTotals arithmetic, kept verbatim as the oracle. */
+    private static Totals reference(Order order) {
+        BigDecimal subtotal = order.getItems().stream()
+            .map(OrderItem::getLineTotal)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        BigDecimal orderDiscount = order.getDiscount() == null ? BigDecimal.ZERO : order.getDiscount();
+        BigDecimal discounted = subtotal.subtract(orderDiscount);
+        if (discounted.signum() < 0) {
+            discounted = BigDecimal.ZERO;
+        }
+
+        PaymentMode mode = order.getPaymentMode() == null ? PaymentMode.CASH : order.getPaymentMode();
+        BigDecimal gstRate = mode == PaymentMode.CARD ? new BigDecimal("0.05") : new BigDecimal("0.16");
+        BigDecimal tax = discounted.multiply(gstRate).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal total = discounted.add(tax).setScale(2, RoundingMode.HALF_UP);
+        return new Totals(subtotal.setScale(2, RoundingMode.HALF_UP), tax, total, gstRate);
+    }
+
+    private record Totals(BigDecimal subtotal, BigDecimal tax, BigDecimal total, BigDecimal gstRate) {}
+}
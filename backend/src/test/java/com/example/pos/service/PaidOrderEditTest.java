@@ -0,0 +1,63 @@
+package com.example.pos.service;
+
+import com.example.pos.SqliteTestDatabase;
+import com.example.pos.dto.DailySalesConsistencyResponse;
+import com.example.pos.dto.OrderItemRequest;
+import com.example.pos.dto.OrderResponse;
+import com.example.pos.dto.OrderUpdateRequest;
+import com.example.pos.exception.ConflictException;
+import com.example.pos.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A PATCH on a checked-out order may fix customer details, but never its
+ * totals: the daily sales rollup and the fiscal invoice were taken at checkout.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = {"app.fiscalization.enabled=false", "app.order.verify-totals=true"}
+)
+class PaidOrderEditTest extends SqliteTestDatabase {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void discountOnAPaidOrderIsRejectedAndTheRollupStillMatchesTheScan() {
+        UUID orderId = orderService.createOrder().id();
+        orderService.addOrUpdateItem(orderId, new OrderItemRequest(itemRepository.findAll().get(0).getId(), 3));
+        OrderResponse paid = orderService.checkout(orderId);
+
+        assertThatThrownBy(() -> orderService.updateOrder(orderId, new OrderUpdateRequest(
+                null, null, null, null, null, null, new BigDecimal("5.00"), null)))
+            .isInstanceOf(ConflictException.class);
+        assertThatThrownBy(() -> orderService.updateOrder(orderId, new OrderUpdateRequest(
+                null, null, null, null, null, null, null, "CARD")))
+            .isInstanceOf(ConflictException.class);
+        OrderResponse renamed = orderService.updateOrder(orderId, new OrderUpdateRequest(
+            "Walk-in", null, null, null, null, "Receipt reprinted", null, null));
+
+        assertThat(renamed.customerName()).isEqualTo("Walk-in");
+        assertThat(renamed.total()).isEqualTo(paid.total());
+        assertThat(renamed.discount()).isEqualTo(paid.discount());
+        DailySalesConsistencyResponse consistency = reportService.checkConsistency(LocalDate.now(ZoneId.systemDefault()));
+        assertThat(consistency.consistent()).isTrue();
+        assertThat(consistency.scannedTotalSales()).isEqualByComparingTo(consistency.rollupTotalSales());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.SalesGranularity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportServiceTest {
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+    private static final ZoneId KARACHI = ZoneId.of("Asia/Karachi");
+
+    @Test
+    void periodsUseTheOffsetInForceAtEachInstant() {
+        // DST started on 2024-03-10: 04:30Z is 23:30 EST the day before, 04:30Z a day later is 00:30 EDT
+        Instant beforeChange = Instant.parse("2024-03-10T04:30:00Z");
+        Instant afterChange = Instant.parse("2024-03-11T04:30:00Z");
+
+        assertThat(ReportService.period(beforeChange, NEW_YORK, SalesGranularity.DAY)).isEqualTo("2024-03-09");
+        assertThat(ReportService.period(afterChange, NEW_YORK, SalesGranularity.DAY)).isEqualTo("2024-03-11");
+        assertThat(ReportService.period(afterChange, NEW_YORK, SalesGranularity.HOUR)).isEqualTo("2024-03-11T00:00");
+    }
+
+    @Test
+    void weeksStartOnMondayInLocalTime() {
+        // Sunday 2024-05-05 21:00Z is already Monday 02:00 in Karachi
+        Instant sundayUtc = Instant.parse("2024-05-05T21:00:00Z");
+
+        assertThat(ReportService.period(sundayUtc, KARACHI, SalesGranularity.WEEK)).isEqualTo("2024-05-06");
+        assertThat(ReportService.period(sundayUtc, ZoneId.of("UTC"), SalesGranularity.WEEK)).isEqualTo("2024-04-29");
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.pos.tax;
+
+import com.example.pos.entity.PaymentMode;
+import com.example.pos.exception.GlobalExceptionHandler;
+import com.example.pos.tax.dto.TaxRuleView;
+import com.example.pos.tax.dto.TaxRulesResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TaxController.class)
+@Import(GlobalExceptionHandler.class)
+class TaxControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TaxEngine taxEngine;
+
+    @Test
+    void rules_returnsCompiledTable() throws Exception {
+        when(taxEngine.rules()).thenReturn(new TaxRulesResponse(3, Instant.parse("2026-05-10T10:00:00Z"), List.of(
+            new TaxRuleView(null, null, "Beverages", new BigDecimal("0.10"), null, null),
+            new TaxRuleView(PaymentMode.CASH, null, null, new BigDecimal("0.16"), null, null)
+        )));
+
+        mockMvc.perform(get("/api/tax/rules"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(3))
+            .andExpect(jsonPath("$.rules[0].category").value("Beverages"))
+            .andExpect(jsonPath("$.rules[1].paymentMode").value("CASH"))
+            .andExpect(jsonPath("$.rules[1].rate").value(0.16));
+    }
+
+    @Test
+    void reload_rejectsRulesThatDoNotCompile() throws Exception {
+        when(taxEngine.reload()).thenThrow(new IllegalArgumentException("app.tax.rules[0].rate is required"));
+
+        mockMvc.perform(post("/api/tax/admin/reload"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.pos.tax;
+
+import com.example.pos.entity.PaymentMode;
+import com.example.pos.pra.PraProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaxEngineTest {
+    private static final long NOW = Instant.parse("2026-05-10T10:00:00Z").toEpochMilli();
+
+    private final TaxProperties taxProperties = new TaxProperties();
+    private final PraProperties praProperties = new PraProperties();
+
+    @Test
+    void withoutRulesPaymentModeDecidesTheRate() {
+        TaxEngine engine = new TaxEngine(taxProperties, praProperties);
+
+        TaxRate cash = engine.rateFor(PaymentMode.CASH, "98211000", "Mains", NOW);
+        assertThat(cash.basisPoints()).isEqualTo(1600);
+        assertThat(cash.rate()).isEqualTo(new BigDecimal("0.16"));
+        assertThat(cash.percent()).isEqualTo(new BigDecimal("16.00"));
+        assertThat(engine.rateFor(PaymentMode.CARD, "98211000", "Mains", NOW).basisPoints()).isEqualTo(500);
+        assertThat(engine.baseRate(null, NOW)).isSameAs(cash);
+        assertThat(engine.hasLineRules(PaymentMode.CASH)).isFalse();
+    }
+
+    @Test
+    void pctCodeBeatsCategoryBeatsPaymentMode() {
+        taxProperties.getRules().add(rule(null, null, "Beverages", "0.10"));
+        taxProperties.getRules().add(rule(null, "21069090", null, "0.17"));
+        taxProperties.getRules().add(rule(PaymentMode.CARD, null, "Desserts", "0.08"));
+        TaxEngine engine = new TaxEngine(taxProperties, praProperties);
+
+        assertThat(engine.rateFor(PaymentMode.CASH, "21069090", "Beverages", NOW).basisPoints()).isEqualTo(1700);
+        assertThat(engine.rateFor(PaymentMode.CASH, "98211000", "Beverages", NOW).basisPoints()).isEqualTo(1000);
+        assertThat(engine.rateFor(PaymentMode.CASH, "98211000", "Desserts", NOW).basisPoints()).isEqualTo(1600);
+        assertThat(engine.rateFor(PaymentMode.CARD, "98211000", "Desserts", NOW).basisPoints()).isEqualTo(800);
+        assertThat(engine.rateFor(PaymentMode.CARD, null, null, NOW).basisPoints()).isEqualTo(500);
+        assertThat(engine.hasLineRules(PaymentMode.CARD)).isTrue();
+    }
+
+    @Test
+    void unsetPctCodeMatchesTheDefaultPctCode() {
+        taxProperties.getRules().add(rule(null, praProperties.getDefaultPctCode(), null, "0.13"));
+        TaxEngine engine = new TaxEngine(taxProperties, praProperties);
+
+        assertThat(engine.rateFor(PaymentMode.CASH, "00000000", null, NOW).basisPoints()).isEqualTo(1300);
+        assertThat(engine.rateFor(PaymentMode.CASH, " ", null, NOW).basisPoints()).isEqualTo(1300);
+        assertThat(engine.rateFor(PaymentMode.CASH, null, null, NOW).basisPoints()).isEqualTo(1300);
+    }
+
+    @Test
+    void windowedRulesApplyOnlyInsideTheirWindow() {
+        TaxProperties.Rule open = rule(PaymentMode.CARD, null, null, "0.06");
+        TaxProperties.Rule promotion = rule(PaymentMode.CARD, null, null, "0.00");
+        promotion.setFrom(Instant.ofEpochMilli(NOW));
+        promotion.setUntil(Instant.ofEpochMilli(NOW + 3_600_000));
+        taxProperties.getRules().add(open);
+        taxProperties.getRules().add(promotion);
+        TaxEngine engine = new TaxEngine(taxProperties, praProperties);
+
+        assertThat(engine.baseRate(PaymentMode.CARD, NOW - 1).basisPoints()).isEqualTo(600);
+        assertThat(engine.baseRate(PaymentMode.CARD, NOW).basisPoints()).isEqualTo(0);
+        assertThat(engine.baseRate(PaymentMode.CARD, NOW + 3_600_000).basisPoints()).isEqualTo(600);
+        assertThat(engine.baseRate(PaymentMode.CASH, NOW).basisPoints()).isEqualTo(1600);
+    }
+
+    @Test
+    void reloadPicksUpChangedRulesAndRejectsBrokenOnes() {
+        TaxEngine engine = new TaxEngine(taxProperties, praProperties);
+        long version = engine.rules().version();
+
+        praProperties.setCashGstRate(0.15);
+        assertThat(engine.reload().version()).isEqualTo(version + 1);
+        assertThat(engine.baseRate(PaymentMode.CASH, NOW).rate()).isEqualTo(new BigDecimal("0.15"));
+
+        taxProperties.getRules().add(rule(null, "98211000", "Mains", "0.10"));
+        assertThatThrownBy(engine::reload).isInstanceOf(IllegalArgumentException.class);
+        taxProperties.getRules().set(0, rule(null, null, "Mains", "0.16555"));
+        assertThatThrownBy(engine::reload).isInstanceOf(IllegalArgumentException.class);
+        assertThat(engine.rules().version()).isEqualTo(version + 1);
+        assertThat(engine.rateFor(PaymentMode.CASH, null, "Mains", NOW).basisPoints()).isEqualTo(1500);
+    }
+
+    @Test
+    void rulesFileIsReadAgainOnReload(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("tax-rules.yml");
+        Files.writeString(file, """
+            app:
+              tax:
+                rules:
+                  - category: Beverages
+                    rate: 0.10
+            """);
+        taxProperties.setRulesFile("file:" + file);
+        TaxEngine engine = new TaxEngine(taxProperties, praProperties);
+        assertThat(engine.rateFor(PaymentMode.CASH, null, "Beverages", NOW).basisPoints()).isEqualTo(1000);
+
+        Files.writeString(file, """
+            app:
+              tax:
+                rules:
+                  - category: Beverages
+                    rate: 0.12
+                    until: 2026-01-01T00:00:00Z
+            """);
+        engine.reload();
+        assertThat(engine.rateFor(PaymentMode.CASH, null, "Beverages", NOW).basisPoints()).isEqualTo(1600);
+        assertThat(engine.rateFor(PaymentMode.CASH, null, "Beverages", 0).basisPoints()).isEqualTo(1200);
+    }
+
+    @Test
+    void lookupsDoNotAllocate() {
+        taxProperties.getRules().add(rule(null, "21069090", null, "0.17"));
+        taxProperties.getRules().add(rule(null, null, "Beverages", "0.10"));
+        TaxEngine engine = new TaxEngine(taxProperties, praProperties);
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long sum = 0;
+        for (int i = 0; i < 200_000; i++) {
+            sum += engine.rateFor(PaymentMode.CARD, "21069090", "Beverages", NOW).basisPoints();
+            sum += engine.rateFor(PaymentMode.CASH, "98211000", "Beverages", NOW).basisPoints();
+            sum += engine.rateFor(PaymentMode.CASH, "00000000", "Mains", NOW).basisPoints();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 200_000; i++) {
+            sum += engine.rateFor(PaymentMode.CARD, "21069090", "Beverages", NOW).basisPoints();
+            sum += engine.rateFor(PaymentMode.CASH, "98211000", "Beverages", NOW).basisPoints();
+            sum += engine.rateFor(PaymentMode.CASH, "00000000", "Mains", NOW).basisPoints();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(sum).isEqualTo(400_000L * (1700 + 1000 + 1600));
+        // Slack for the measurement itself; one object per lookup would be megabytes
+        assertThat(allocated).isLessThan(64 * 1024);
+    }
+
+    private static TaxProperties.Rule rule(PaymentMode mode, String pctCode, String category, String rate) {
+        TaxProperties.Rule rule = new TaxProperties.Rule();
+        rule.setPaymentMode(mode);
+        rule.setPctCode(pctCode);
+        rule.setCategory(category);
+        rule.setRate(new BigDecimal(rate));
+        return rule;
+    }
+}
@@ -50,6 +50,7 @@ export type Order = {
   fiscalInvoiceNumber: string | null;
   fiscalQrText: string | null;
   fiscalVerificationUrl: string | null;
+  fiscalStatus: 'PENDING' | 'FISCALIZED' | null;
   subtotal: number;
   tax: number;
   total: number;